@@ -0,0 +1,123 @@
+package com.cemiltokatli.jurl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Renders a URL for each item of a sequence on a fork-join pool and returns the URLs in the order of the items.
+ *
+ * Small batches are rendered on the calling thread. Larger ones are split in halves until each part is small enough,
+ * and the parts are rendered in parallel. Each part writes its URLs into its own range of a shared array,
+ * so the results do not have to be merged.
+ */
+final class BatchRenderer {
+    /**
+     * Batches smaller than this are rendered on the calling thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    /**
+     * Parts smaller than this are not split any further.
+     */
+    private static final int MIN_PART_SIZE = 256;
+
+    private BatchRenderer(){
+    }
+
+    /**
+     * Renders a URL for each of the given items.
+     *
+     * @param items the items
+     * @param renderer the function that renders the URL of an item
+     * @param <R> type of the items
+     * @return the URLs in the order of the items, as an unmodifiable list
+     */
+    static <R> List<String> renderAll(Iterable<? extends R> items, Function<? super R, String> renderer){
+        return renderAll(toRandomAccessList(items), renderer);
+    }
+
+    /**
+     * Renders a URL for each of the given items.
+     *
+     * @param items the items
+     * @param renderer the function that renders the URL of an item
+     * @param <R> type of the items
+     * @return the URLs in the order of the items, as an unmodifiable list
+     */
+    private static <R> List<String> renderAll(List<? extends R> items, Function<? super R, String> renderer){
+        String[] results = new String[items.size()];
+        PartTask<R> task = new PartTask<>(items, renderer, results, 0, results.length,
+                Math.max(MIN_PART_SIZE, results.length / (ForkJoinPool.getCommonPoolParallelism() * 4)));
+
+        if(results.length < PARALLEL_THRESHOLD)
+            task.renderPart();
+        else
+            ForkJoinPool.commonPool().invoke(task);
+
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    /**
+     * Returns the given items as a list whose items can be accessed by their positions, copies them if they are not.
+     */
+    private static <R> List<? extends R> toRandomAccessList(Iterable<? extends R> items){
+        if(items instanceof List && items instanceof RandomAccess)
+            return (List<? extends R>) items;
+
+        List<R> list = items instanceof Collection ? new ArrayList<>(((Collection<? extends R>) items).size()) : new ArrayList<>();
+        for(R item : items)
+            list.add(item);
+
+        return list;
+    }
+
+    /**
+     * Renders the URLs of the items between two indexes, splits the range in two if it is large.
+     */
+    private static final class PartTask<R> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends R> items;
+        private final Function<? super R, String> renderer;
+        private final String[] results;
+        private final int start;
+        private final int end;
+        private final int partSize;
+
+        PartTask(List<? extends R> items, Function<? super R, String> renderer, String[] results, int start, int end, int partSize){
+            this.items = items;
+            this.renderer = renderer;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+            this.partSize = partSize;
+        }
+
+        @Override
+        protected void compute(){
+            if(end - start > partSize){
+                int middle = start + (end - start) / 2;
+
+                invokeAll(new PartTask<>(items, renderer, results, start, middle, partSize),
+                          new PartTask<>(items, renderer, results, middle, end, partSize));
+            }
+            else
+                renderPart();
+        }
+
+        /**
+         * Renders the URLs of the items one after another.
+         */
+        void renderPart(){
+            for(int i = start; i < end; i++)
+                results[i] = renderer.apply(items.get(i));
+        }
+    }
+}
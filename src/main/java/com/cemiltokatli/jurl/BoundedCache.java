@@ -0,0 +1,210 @@
+package com.cemiltokatli.jurl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size-bounded cache that is safe to be used by multiple threads.
+ *
+ * The entries are spread over a number of segments, each of them is guarded by its own lock and evicts
+ * its least recently used entry when it is full. So threads that use different keys rarely wait for each other.
+ *
+ * A frequency-aware cache also keeps an estimate of how often each key has been requested recently. When it is full,
+ * a new entry is admitted only if its key is requested more often than the key of the least recently used entry,
+ * so a burst of keys that are requested only once cannot push the popular entries out.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+final class BoundedCache<K, V> {
+    private static final int MAX_SEGMENTS = 16;
+
+    private final int capacity;
+    private final Segment<K, V>[] segments;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    /**
+     * Creates a new cache that holds at most the given number of entries and evicts the least recently used ones.
+     *
+     * @param capacity maximum number of entries
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    BoundedCache(int capacity){
+        this(capacity, false);
+    }
+
+    /**
+     * Creates a new cache that holds at most the given number of entries.
+     *
+     * @param capacity maximum number of entries
+     * @param frequencyAware true to admit new entries by comparing their frequencies with the entries to be evicted
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    @SuppressWarnings("unchecked")
+    BoundedCache(int capacity, boolean frequencyAware){
+        if(capacity <= 0)
+            throw new IllegalArgumentException("Capacity of a cache must be positive: " + capacity);
+
+        int segmentCount = 1;
+        while(segmentCount < MAX_SEGMENTS && segmentCount * 8 <= capacity)
+            segmentCount <<= 1;
+
+        this.capacity = capacity;
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+
+        for(int i = 0; i < segmentCount; i++){
+            int segmentCapacity = capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0);
+            segments[i] = new Segment<>(segmentCapacity, frequencyAware ? new FrequencySketch(segmentCapacity) : null, evictions);
+        }
+    }
+
+    /**
+     * Returns the value that is mapped to the given key, or null if there is no such entry.
+     *
+     * @param key the key
+     * @return the cached value
+     */
+    V get(K key){
+        Segment<K, V> segment = segmentFor(key);
+        V value;
+
+        synchronized(segment){
+            value = segment.find(key);
+        }
+
+        if(value != null)
+            hits.increment();
+        else
+            misses.increment();
+
+        return value;
+    }
+
+    /**
+     * Maps the given value to the given key. The least recently used entry is evicted if there is no room,
+     * a frequency-aware cache may also reject the new entry instead.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    void put(K key, V value){
+        Segment<K, V> segment = segmentFor(key);
+
+        synchronized(segment){
+            segment.store(key, value);
+        }
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return the number of entries.
+     */
+    int size(){
+        int size = 0;
+
+        for(Segment<K, V> segment : segments){
+            synchronized(segment){
+                size += segment.size();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Removes all of the entries. Statistics are not reset.
+     */
+    void clear(){
+        for(Segment<K, V> segment : segments){
+            synchronized(segment){
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache.
+     *
+     * @return the statistics
+     */
+    CacheStats getStats(){
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size(), capacity);
+    }
+
+    /**
+     * Returns the segment that is responsible for the given key.
+     *
+     * @param key the key
+     * @return the segment
+     */
+    private Segment<K, V> segmentFor(K key){
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (segments.length - 1)];
+    }
+
+    /**
+     * A part of the cache that keeps its entries in the access order.
+     *
+     * @param <K> type of the keys
+     * @param <V> type of the values
+     */
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private final FrequencySketch sketch;
+        private final LongAdder evictions;
+
+        Segment(int capacity, FrequencySketch sketch, LongAdder evictions){
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.sketch = sketch;
+            this.evictions = evictions;
+        }
+
+        /**
+         * Returns the value of the given key and records the request.
+         */
+        V find(K key){
+            if(sketch != null)
+                sketch.increment(key);
+
+            return get(key);
+        }
+
+        /**
+         * Stores the given entry unless the segment is full and the entry is less popular than the eldest one.
+         */
+        void store(K key, V value){
+            if(sketch != null && size() >= capacity && !containsKey(key)){
+                K victim = keySet().iterator().next();
+
+                if(sketch.frequency(key) <= sketch.frequency(victim))
+                    return;
+
+                remove(victim);
+                evictions.increment();
+            }
+
+            put(key, value);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest){
+            if(size() > capacity){
+                evictions.increment();
+                return true;
+            }
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.cemiltokatli.jurl;
+
+/**
+ * An immutable snapshot of the statistics of one of the caches used by the library.
+ * An object of this class can be obtained from the JURL class.
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final int size;
+    private final int capacity;
+
+    /**
+     * Creates a new CacheStats object with the given values.
+     *
+     * @param hitCount number of the lookups that found a value
+     * @param missCount number of the lookups that did not find a value
+     * @param evictionCount number of the evicted entries
+     * @param size number of the entries
+     * @param capacity maximum number of the entries
+     */
+    CacheStats(long hitCount, long missCount, long evictionCount, int size, int capacity){
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the number of the lookups that found a cached value.
+     *
+     * @return the hit count.
+     */
+    public long getHitCount(){
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of the lookups that did not find a cached value.
+     *
+     * @return the miss count.
+     */
+    public long getMissCount(){
+        return missCount;
+    }
+
+    /**
+     * Returns the number of the entries that have been evicted to make room for new ones.
+     *
+     * @return the eviction count.
+     */
+    public long getEvictionCount(){
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of the entries in the cache.
+     *
+     * @return the size of the cache.
+     */
+    public int getSize(){
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of the entries that the cache can hold.
+     *
+     * @return the capacity of the cache.
+     */
+    public int getCapacity(){
+        return capacity;
+    }
+
+    /**
+     * Returns the ratio of the lookups that found a cached value, or 0 if there has been no lookup.
+     *
+     * @return the hit rate.
+     */
+    public double getHitRate(){
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Returns the statistics as a string.
+     *
+     * @return the statistics
+     */
+    @Override
+    public String toString(){
+        return "CacheStats{hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount
+                + ", size=" + size + ", capacity=" + capacity + "}";
+    }
+}
@@ -2,7 +2,9 @@ package com.cemiltokatli.jurl;
 
 import com.cemiltokatli.jurl.exception.URLBuildException;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.Objects;
 
 /**
  * Represents a data URL.
@@ -56,6 +58,7 @@ public class DataURL extends URL {
      * @return the DataURL object
      */
     public DataURL setMediaType(String mediaType){
+        modified();
         this.mediaType = mediaType;
         return this;
     }
@@ -67,6 +70,7 @@ public class DataURL extends URL {
      * @return the DataURL object
      */
     public DataURL setBase64(boolean base64){
+        modified();
         this.base64 = base64;
         return this;
     }
@@ -78,6 +82,7 @@ public class DataURL extends URL {
      * @return the DataURL object
      */
     public DataURL setData(String data){
+        modified();
         if(data != null){
             this.data = data;
         }
@@ -85,14 +90,64 @@ public class DataURL extends URL {
     }
 
     /**
-     * Builds the URL and returns it as a string.
+     * Returns an immutable copy of the URL. The URL itself is returned if it is already frozen.
+     *
+     * @return the frozen DataURL object
+     */
+    @Override
+    public DataURL freeze(){
+        if(isFrozen())
+            return this;
+
+        DataURL frozen = new DataURL(getProtocol());
+        frozen.mediaType = mediaType;
+        frozen.base64 = base64;
+        frozen.data = data;
+        frozen.markFrozen();
+        return frozen;
+    }
+
+    /**
+     * Clears all of the components of the URL, so the object can be used to build another URL of the same protocol.
+     *
+     * @return the DataURL object
+     * @throws UnsupportedOperationException If the URL is frozen.
+     */
+    @Override
+    public DataURL reset(){
+        modified();
+        mediaType = null;
+        base64 = false;
+        data = null;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if(this == o)
+            return true;
+
+        if(!(o instanceof DataURL))
+            return false;
+
+        DataURL other = (DataURL) o;
+        return getProtocol().equals(other.getProtocol()) && base64 == other.base64
+                && Objects.equals(mediaType, other.mediaType) && Objects.equals(data, other.data);
+    }
+
+    @Override
+    int hashComponents(){
+        return Objects.hash(getProtocol(), mediaType, base64, data);
+    }
+
+    /**
+     * Builds the URL and appends it to the given builder.
      * If the "encode" argument is true, it also encodes the URL.
      *
+     * @param url the builder that the URL is appended to
      * @param encode true to encode the URL
-     * @return the built URL
      */
-    public String toString(boolean encode) {
-        StringBuilder url = new StringBuilder();
+    void build(StringBuilder url, boolean encode) {
         boolean addSlash = true;
 
         //Protocol
@@ -116,23 +171,25 @@ public class DataURL extends URL {
         String dataPrepared = data;
 
         if(base64)
-            dataPrepared = Base64.getEncoder().encodeToString(dataPrepared.getBytes());
+            dataPrepared = Base64.getEncoder().encodeToString(dataPrepared.getBytes(StandardCharsets.UTF_8));
 
         if(encode && !base64)
             dataPrepared = encode(dataPrepared);
 
         url.append(",").append(dataPrepared);
-
-        return url.toString();
     }
 
-    /**
-     * Builds the URL and returns it as a string.
-     *
-     * @return the built URL
-     */
     @Override
-    public String toString(){
-        return toString(false);
+    int length(boolean encode){
+        int length = super.getProtocol().length() + 1;
+
+        if(mediaType != null)
+            length += mediaType.length();
+
+        //# Base64 is computed from the UTF-8 bytes of the data, not from its characters
+        if(data != null)
+            length += base64 ? 7 + 4 * ((Utf8Encoder.length(data) + 2) / 3) : length(data, false, encode);
+
+        return length;
     }
 }
@@ -5,6 +5,7 @@ import com.cemiltokatli.jurl.exception.URLBuildException;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Represents a URL with file, ftp, ftps or sftp protocol.
@@ -14,6 +15,9 @@ public class FileURL extends URL {
     private String username;
     private String password;
     private String host;
+    private String asciiHost;
+    private String preparedHost;
+    private IPAddress ipAddress;
     private int port;
     private List<String> pathSegments;
 
@@ -55,6 +59,30 @@ public class FileURL extends URL {
         return host;
     }
 
+    /**
+     * Returns the ASCII form of the host name. An internationalized host name is converted to punycode.
+     * The conversion is done once and the result is kept until the host name is changed.
+     *
+     * @return the ASCII form of the host name.
+     * @throws URLBuildException If the host name cannot be converted.
+     */
+    public String getASCIIHost() {
+        if(asciiHost == null && host != null)
+            asciiHost = ipAddress != null ? preparedHost : toASCIIHost(preparedHost);
+
+        return asciiHost;
+    }
+
+    /**
+     * Returns the IP address if the host name is an IPv4 address or an IPv6 address in brackets.
+     * The URL is built with the canonical form of the address.
+     *
+     * @return the IP address of the URL, or null if the host name is not an IP address.
+     */
+    public IPAddress getIPAddress() {
+        return ipAddress;
+    }
+
     /**
      * Returns the port number
      *
@@ -71,6 +99,7 @@ public class FileURL extends URL {
      * @return the FileURL object
      */
     public FileURL setUsername(String username) {
+        modified();
         this.username = username;
         return this;
     }
@@ -82,6 +111,7 @@ public class FileURL extends URL {
      * @return the FileURL object
      */
     public FileURL setPassword(String password) {
+        modified();
         this.password = password;
         return this;
     }
@@ -93,8 +123,15 @@ public class FileURL extends URL {
      * @return the FileURL object
      */
     public FileURL setHost(String host) {
+        modified();
         if(host != null){
-            this.host = host.replaceAll("/","");
+            this.host = removeSlashes(host);
+            this.preparedHost = removeProtocol(this.host, "ftp:", "ftps:", "sftp:", "file:");
+            this.ipAddress = IPAddress.parse(preparedHost);
+            this.asciiHost = null;
+
+            if(ipAddress != null)
+                this.preparedHost = ipAddress.toHostString();
         }
         return this;
     }
@@ -106,6 +143,7 @@ public class FileURL extends URL {
      * @return the FileURL object
      */
     public FileURL setPort(int port) {
+        modified();
         this.port = port;
         return this;
     }
@@ -117,6 +155,7 @@ public class FileURL extends URL {
      * @return the FileURL object
      */
     public FileURL addPathSegment(String segment){
+        modified();
         if(segment.contains("/")){
             String[] pieces = segment.replaceFirst("^/", "").split("/");
             for(String piece : pieces){
@@ -138,19 +177,99 @@ public class FileURL extends URL {
      * @return the FileURL object
      */
     public FileURL removePathSegment(String segment){
+        modified();
         this.pathSegments.remove(segment);
         return this;
     }
 
     /**
-     * Builds the URL and returns it as a string.
-     * If the encode argument is true, it also encodes the URL.
+     * Returns an immutable copy of the URL. The URL itself is returned if it is already frozen.
+     *
+     * @return the frozen FileURL object
+     */
+    @Override
+    public FileURL freeze() {
+        if(isFrozen())
+            return this;
+
+        FileURL frozen = new FileURL(getProtocol());
+        frozen.username = username;
+        frozen.password = password;
+        frozen.host = host;
+        frozen.asciiHost = asciiHost;
+        frozen.preparedHost = preparedHost;
+        frozen.ipAddress = ipAddress;
+        frozen.port = port;
+        frozen.pathSegments = new ArrayList<>(pathSegments);
+
+        //# A frozen URL can be read by multiple threads, so the ASCII host name is computed before it is published
+        try{
+            frozen.getASCIIHost();
+        }
+        catch(URLBuildException e){
+            //# The host name is converted again and the error is thrown when it is requested, nothing is stored
+        }
+
+        frozen.markFrozen();
+        return frozen;
+    }
+
+    /**
+     * Clears all of the components of the URL, so the object can be used to build another URL of the same protocol.
+     *
+     * @return the FileURL object
+     * @throws UnsupportedOperationException If the URL is frozen.
+     */
+    @Override
+    public FileURL reset(){
+        modified();
+        username = null;
+        password = null;
+        host = null;
+        asciiHost = null;
+        preparedHost = null;
+        ipAddress = null;
+        port = -1;
+        pathSegments.clear();
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o)
+            return true;
+
+        if(!(o instanceof FileURL))
+            return false;
+
+        FileURL other = (FileURL) o;
+        return getProtocol().equals(other.getProtocol()) && port == other.port && Objects.equals(username, other.username)
+                && Objects.equals(password, other.password) && Objects.equals(hostKey(), other.hostKey())
+                && pathSegments.equals(other.pathSegments);
+    }
+
+    @Override
+    int hashComponents() {
+        return Objects.hash(getProtocol(), username, password, hostKey(), port, pathSegments);
+    }
+
+    /**
+     * Returns the IP address if the host name is an IP address, so different forms of the same address are equal,
+     * or the host name otherwise.
+     */
+    private Object hostKey() {
+        return ipAddress != null ? ipAddress : host;
+    }
+
+    /**
+     * Builds the URL and appends it to the given builder.
+     * If the encode argument is true, it also encodes the URL and converts an internationalized host name to ASCII.
      *
+     * @param url the builder that the URL is appended to
      * @param encode true to encode the URL.
-     * @return the built URL
+     * @throws URLBuildException If the host name is not set or it cannot be converted to ASCII.
      */
-    public String toString(boolean encode){
-        StringBuilder url = new StringBuilder();
+    void build(StringBuilder url, boolean encode){
 
         //Protocol
         url.append(super.getProtocol());
@@ -183,7 +302,7 @@ public class FileURL extends URL {
         }
 
         //Host
-        String hostPrepared = host.replaceFirst("^ftp://|ftps://|sftp://|file://|ftp:|ftps:|file:|sftp:","");
+        String hostPrepared = encode ? getASCIIHost() : preparedHost;
 
         if(username != null){
             url.append("@");
@@ -203,13 +322,13 @@ public class FileURL extends URL {
             for (int i = 0; i < pathSegments.size(); i++) {
                 segment = pathSegments.get(i);
 
-                if (encode)
-                    segment = encode(segment);
-
                 if (i > 0)
                     url.append("/");
 
-                url.append(segment);
+                if (encode)
+                    appendEncoded(segment, false, url);
+                else
+                    url.append(segment);
             }
 
             //# If the latest param is a directory, add a slash (/) at the end
@@ -217,17 +336,40 @@ public class FileURL extends URL {
                 url.append("/");
             }
         }
-
-        return url.toString();
     }
 
-    /**
-     * Builds the URL and returns it as a string.
-     *
-     * @return the built URL
-     */
     @Override
-    public String toString(){
-        return toString(false);
+    int length(boolean encode){
+        //Protocol
+        int length = super.getProtocol().length();
+
+        //Username and Password
+        if(username != null)
+            length += length(username, false, encode) + 1;
+
+        if(password != null)
+            length += length(password, false, encode) + (username != null ? 1 : 0);
+
+        //Host and Port
+        if(host != null)
+            length += encode ? getASCIIHost().length() : preparedHost.length();
+
+        if(port > -1)
+            length += 1 + digitCount(port);
+
+        //Path
+        if(!pathSegments.isEmpty()){
+            String segment = "";
+
+            for(int i = 0; i < pathSegments.size(); i++){
+                segment = pathSegments.get(i);
+                length += 1 + length(segment, false, encode);
+            }
+
+            if(!segment.contains("."))
+                length++;
+        }
+
+        return length;
     }
 }
@@ -0,0 +1,89 @@
+package com.cemiltokatli.jurl;
+
+/**
+ * Estimates how often keys have been requested recently.
+ *
+ * This is a count-min sketch with four rows of small counters. A key is counted in one counter of each row and
+ * its frequency is the smallest of those counters, so collisions can only overestimate it. All of the counters are
+ * halved periodically, which lets the estimates follow the changes in the popularity of the keys.
+ * An object of this class is not thread-safe.
+ */
+final class FrequencySketch {
+    private static final int[] SEEDS = {0x97CB3127, 0xB4E4B2A7, 0x3C6EF372, 0x5F356495};
+    private static final int MAX_COUNT = 15;
+
+    private final int[][] rows;
+    private final int shift;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Creates a new sketch for a cache with the given capacity.
+     *
+     * @param capacity capacity of the cache
+     */
+    FrequencySketch(int capacity){
+        int width = 16;
+        while(width < capacity && width < (1 << 24))
+            width <<= 1;
+
+        this.rows = new int[SEEDS.length][width];
+        this.shift = 32 - Integer.numberOfTrailingZeros(width);
+        this.sampleSize = 10 * Math.max(capacity, 16);
+    }
+
+    /**
+     * Increases the frequency of the given key.
+     *
+     * @param key the key
+     */
+    void increment(Object key){
+        int hash = key.hashCode();
+
+        for(int i = 0; i < rows.length; i++){
+            int index = indexOf(hash, i);
+            if(rows[i][index] < MAX_COUNT)
+                rows[i][index]++;
+        }
+
+        if(++additions >= sampleSize)
+            age();
+    }
+
+    /**
+     * Returns the estimated frequency of the given key.
+     *
+     * @param key the key
+     * @return the frequency
+     */
+    int frequency(Object key){
+        int hash = key.hashCode();
+        int frequency = MAX_COUNT;
+
+        for(int i = 0; i < rows.length; i++){
+            frequency = Math.min(frequency, rows[i][indexOf(hash, i)]);
+        }
+
+        return frequency;
+    }
+
+    /**
+     * Returns the index of the counter of the given hash code in the given row.
+     */
+    private int indexOf(int hash, int row){
+        return (hash * SEEDS[row]) >>> shift;
+    }
+
+    /**
+     * Halves all of the counters.
+     */
+    private void age(){
+        for(int[] row : rows){
+            for(int i = 0; i < row.length; i++){
+                row[i] >>>= 1;
+            }
+        }
+
+        additions /= 2;
+    }
+}
@@ -4,22 +4,68 @@ import com.cemiltokatli.jurl.exception.HttpURLParseError;
 import com.cemiltokatli.jurl.exception.MalformedHttpURLException;
 import com.cemiltokatli.jurl.exception.URLBuildException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Represents a URL with http or https protocol.
  * An object of this class can only be instantiated by the JURL.build method.
  */
 public class HttpURL extends URL {
+    /**
+     * The forms that a Http(s) URL can be written in as bytes.
+     */
+    public enum Form {
+        /**
+         * The whole URL, such as "http://domain.com:8080/path/?id=1#top".
+         */
+        ABSOLUTE,
+
+        /**
+         * The route parameters and the query fields, as they are sent in the request line of a HTTP request,
+         * such as "/path/?id=1". It is "/" if there is neither a route parameter nor a query field.
+         */
+        ORIGIN,
+
+        /**
+         * The host name and the port number, such as "domain.com:8080".
+         */
+        AUTHORITY
+    }
+
+    private static volatile BoundedCache<String, ParsedHttpURL> parseCache;
+
     private String host;
+    private String asciiHost;
+    private String preparedHost;
+    private String wwwHost;
+    private String asciiWWWHost;
+    private IPAddress ipAddress;
     private int port;
     private boolean shownWWW;
-    private LinkedList<String> routeParameters;
-    private LinkedHashMap<String, String> queryFields;
+    private ArrayList<String> routeParameters;
+    private ArrayList<String> spareRouteParameters;
+    private Map<String, int[]> placeholders;
+    private boolean routeParametersExposed;
+    private QueryParams queryParams;
+    private QueryParams spareQueryParams;
     private String fragment;
-    private String urlString;
+    private boolean parsed;
+    private boolean encodeOnWrite;
+    private List<String> encodedRouteParameters;
+    private String encodedFragment;
+    private List<String> decodedRouteParameters;
+    private Map<String, String> decodedQueryFields;
+    private HttpURLScanner scanner;
+    private boolean fragmentScanned;
+    private boolean routeParametersShared;
+    private boolean queryParamsShared;
 
     /**
      * Creates a new HttpURL object with the given protocol.
@@ -29,8 +75,6 @@ public class HttpURL extends URL {
     HttpURL(String protocol){
         super(protocol);
         this.port = -1;
-        this.routeParameters = new LinkedList<>();
-        this.queryFields = new LinkedHashMap<>();
     }
 
     /**
@@ -39,7 +83,29 @@ public class HttpURL extends URL {
      * @return the host name of the URL.
      */
     public String getHost(){
-        return host;
+        return host();
+    }
+
+    /**
+     * Returns the ASCII form of the host name. An internationalized host name is converted to punycode.
+     * The conversion is done once and the result is kept until the host name is changed.
+     *
+     * @return the ASCII form of the host name of the URL.
+     * @throws URLBuildException If the host name cannot be converted.
+     */
+    public String getASCIIHost(){
+        return asciiHost();
+    }
+
+    /**
+     * Returns the IP address if the host name is an IPv4 address or an IPv6 address in brackets.
+     * The address is recognized when the host name is set or parsed, and the URL is built with its canonical form.
+     *
+     * @return the IP address of the URL, or null if the host name is not an IP address.
+     */
+    public IPAddress getIPAddress(){
+        host();
+        return ipAddress;
     }
 
     /**
@@ -66,16 +132,45 @@ public class HttpURL extends URL {
      * @return the route parameters of the URL.
      */
     public List<String> getRouteParams(){
-        return routeParameters;
+        if(isFrozen())
+            return Collections.unmodifiableList(routeParameters);
+
+        //# The returned list can be modified by the caller, so the placeholders cannot be indexed anymore
+        modified();
+        disableStringCache();
+        routeParametersExposed = true;
+        placeholders = null;
+        return ownRouteParameters();
     }
 
     /**
-     * Returns the query fields.
+     * Returns the query fields as a map.
+     * If a name occurs more than once in the query, the map holds the value of its last occurrence at the position of
+     * its first occurrence. The returned map is a view of the query fields, so changes made on it are reflected to
+     * the URL and the changes made on the URL are reflected to it. Putting a field replaces all of the occurrences of
+     * its name. The returned map cannot be modified if the URL is frozen.
      *
      * @return the query fields of the URL.
      */
     public LinkedHashMap<String, String> getQueryFields(){
-        return queryFields;
+        return new QueryFieldMap();
+    }
+
+    /**
+     * Returns the query fields, including the ones whose names occur more than once, in their order.
+     * Changes made on the returned object are reflected to the URL. The returned object cannot be modified if the URL
+     * is frozen.
+     *
+     * @return the query fields of the URL.
+     */
+    public QueryParams getQueryParams(){
+        if(isFrozen())
+            return queryParams;
+
+        //# The returned object can be modified by the caller
+        modified();
+        disableStringCache();
+        return ownQueryParams();
     }
 
     /**
@@ -84,7 +179,137 @@ public class HttpURL extends URL {
      * @return the fragment of the URL.
      */
     public String getFragment(){
-        return fragment;
+        return fragment();
+    }
+
+    /**
+     * Performs the given action for each query field with its name and value, in the order of the fields.
+     * A name that occurs more than once in the query is passed once for each occurrence.
+     * If the URL has been parsed lazily and its query fields have not been requested yet, the query is read in place.
+     *
+     * @param action the action to be performed for each query field
+     */
+    public void forEachQueryParam(BiConsumer<? super String, ? super String> action){
+        if(queryParams == null && scanner != null)
+            scanner.forEachQueryField(action);
+        else if(queryParams != null)
+            queryParams.forEach(action);
+    }
+
+    /**
+     * Returns the value of the query field whose name is given, or null if there is no such field.
+     * If the name occurs more than once, the value of the last occurrence is returned.
+     * The name is compared character by character, so it does not have to be a string.
+     *
+     * @param name the name of the field
+     * @return the value of the field
+     */
+    public String getQueryField(CharSequence name){
+        if(queryParams == null && scanner != null)
+            return scanner.findQueryField(name);
+
+        return queryParams != null ? queryParams.get(name) : null;
+    }
+
+    /**
+     * Returns the percent-decoded segments of the path field (route parameters) of the url.
+     * The segments are decoded once and the same list is returned until the URL is modified. They are decoded on
+     * every call once a list or a QueryParams object of the URL has been obtained from a getter, since the URL cannot
+     * tell when it is modified through them.
+     *
+     * @return the decoded route parameters of the URL as an unmodifiable list.
+     */
+    public List<String> getDecodedRouteParams(){
+        if(decodedRouteParameters != null)
+            return decodedRouteParameters;
+
+        List<String> decoded = new ArrayList<>(routeParameters().size());
+        for(String param : routeParameters())
+            decoded.add(PercentDecoder.decode(param, false));
+
+        //# Collections returned by the getters can be modified without notifying the URL
+        List<String> result = Collections.unmodifiableList(decoded);
+        if(isStringCacheEnabled())
+            decodedRouteParameters = result;
+
+        return result;
+    }
+
+    /**
+     * Returns the percent-decoded query fields. "+" signs in the names and values are decoded as spaces.
+     * If a name occurs more than once in the query, the map holds the value of its last occurrence.
+     * The fields are decoded once and the same map is returned until the URL is modified. They are decoded on
+     * every call once a list or a QueryParams object of the URL has been obtained from a getter.
+     *
+     * @return the decoded query fields of the URL as an unmodifiable map.
+     */
+    public Map<String, String> getDecodedQueryFields(){
+        if(decodedQueryFields != null)
+            return decodedQueryFields;
+
+        Map<String, String> decoded = new LinkedHashMap<>();
+        QueryParams queryParams = queryParams();
+        for(int i = 0; i < queryParams.size(); i++)
+            decoded.put(PercentDecoder.decode(queryParams.getName(i), true), PercentDecoder.decode(queryParams.getValue(i), true));
+
+        //# Collections returned by the getters can be modified without notifying the URL
+        Map<String, String> result = Collections.unmodifiableMap(decoded);
+        if(isStringCacheEnabled())
+            decodedQueryFields = result;
+
+        return result;
+    }
+
+    /**
+     * Returns the percent-decoded fragment (hash).
+     *
+     * @return the decoded fragment of the URL.
+     */
+    public String getDecodedFragment(){
+        return PercentDecoder.decode(fragment(), false);
+    }
+
+    /**
+     * Returns a boolean value indicating that if the encode-on-write mode is enabled.
+     *
+     * @return a boolean indicating that if the encode-on-write mode is enabled.
+     */
+    public boolean isEncodeOnWriteEnabled(){
+        return encodeOnWrite;
+    }
+
+    /**
+     * Enables or disables the encode-on-write mode.
+     * When the mode is enabled, route parameters, query fields and the fragment are encoded once when they are set
+     * and the encoded forms are stored together with the raw ones, so building the encoded URL only copies them.
+     * The list returned by the getRouteParams method should not be modified directly while this mode is enabled.
+     *
+     * @param status true to enable, false to disable
+     * @return the HttpURL object
+     */
+    public HttpURL setEncodeOnWrite(boolean status){
+        modified();
+        materialize();
+        this.encodeOnWrite = status;
+
+        if(status){
+            encodedRouteParameters = new ArrayList<>(routeParameters().size());
+            for(String param : routeParameters())
+                encodedRouteParameters.add(encode(param, true));
+
+            QueryParams queryParams = ownQueryParams();
+            for(int i = 0; i < queryParams.size(); i++)
+                queryParams.setEncodedField(i, encodeQueryField(queryParams.getName(i), queryParams.getValue(i)));
+
+            encodedFragment = fragment != null ? encode(fragment, true) : null;
+        }
+        else{
+            encodedRouteParameters = null;
+            ownQueryParams().clearEncodedFields();
+            encodedFragment = null;
+        }
+
+        return this;
     }
 
 
@@ -95,8 +320,13 @@ public class HttpURL extends URL {
      * @return the HttpURL object
      */
     public HttpURL setHost(String host){
+        modified();
+        materialize();
+
         if(host != null){
-            this.host = host.replaceAll("/","");
+            String cleanHost = removeSlashes(host);
+            String preparedHost = removeProtocol(cleanHost, "https:", "http:");
+            storeHost(cleanHost, preparedHost, IPAddress.parse(preparedHost));
         }
 
         return this;
@@ -109,6 +339,8 @@ public class HttpURL extends URL {
      * @return the HttpURL object
      */
     public HttpURL setPort(int port){
+        modified();
+        materialize();
         this.port = port;
         return this;
     }
@@ -120,6 +352,8 @@ public class HttpURL extends URL {
      * @return the HttpURL object
      */
     public HttpURL showWWW(boolean status){
+        modified();
+        materialize();
         this.shownWWW = status;
         return this;
     }
@@ -131,16 +365,19 @@ public class HttpURL extends URL {
      * @return the HttpURL object
      */
     public HttpURL addRouteParam(String param){
+        modified();
+        materialize();
+
         if(param.contains("/")){
             String[] pieces = param.replaceFirst("^/", "").split("/");
             for(String piece : pieces){
                 if(!piece.isEmpty()){
-                    this.routeParameters.add(piece.trim());
+                    addRouteParameter(piece.trim());
                 }
             }
         }
         else
-            this.routeParameters.add(param);
+            addRouteParameter(param);
 
         return this;
     }
@@ -152,7 +389,20 @@ public class HttpURL extends URL {
      * @return the HttpURL object
      */
     public HttpURL removeRouteParam(String param){
-        this.routeParameters.remove(param);
+        modified();
+        materialize();
+
+        ArrayList<String> routeParameters = ownRouteParameters();
+        int index = routeParameters.indexOf(param);
+
+        if(index >= 0){
+            routeParameters.remove(index);
+            placeholders = null;
+
+            if(encodeOnWrite)
+                encodedRouteParameters.remove(index);
+        }
+
         return this;
     }
 
@@ -167,9 +417,81 @@ public class HttpURL extends URL {
      * @return the HttpURL object
      */
     public HttpURL setRouteParam(String name, String value){
-        for(int i = 0; i < routeParameters.size(); i++){
-            if(routeParameters.get(i).equals("{"+name+"}")){
-                routeParameters.set(i, value);
+        modified();
+        materialize();
+
+        ArrayList<String> routeParameters = ownRouteParameters();
+        Map<String, int[]> placeholders = placeholders();
+
+        if(placeholders != null){
+            int[] positions = placeholders.remove(name);
+
+            if(positions != null){
+                for(int position : positions)
+                    setRouteParameter(position, value);
+            }
+        }
+        else{
+            for(int i = 0; i < routeParameters.size(); i++){
+                if(isPlaceholder(routeParameters.get(i), name))
+                    setRouteParameter(i, value);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Replaces the placeholders whose names are given with their values, in a single pass over the route parameters.
+     * A placeholder whose value is not given is left as it is.
+     *
+     * @param values values of the placeholders by their names
+     * @return the HttpURL object
+     */
+    public HttpURL setRouteParams(Map<String, String> values){
+        modified();
+        materialize();
+
+        ArrayList<String> routeParameters = ownRouteParameters();
+        Map<String, int[]> placeholders = placeholders();
+
+        if(placeholders != null){
+            //# Visit the smaller one of the given values and the indexed placeholders
+            if(values.size() <= placeholders.size()){
+                for(Map.Entry<String, String> entry : values.entrySet()){
+                    int[] positions = placeholders.remove(entry.getKey());
+
+                    if(positions != null){
+                        for(int position : positions)
+                            setRouteParameter(position, entry.getValue());
+                    }
+                }
+            }
+            else{
+                for(Iterator<Map.Entry<String, int[]>> iterator = placeholders.entrySet().iterator(); iterator.hasNext();){
+                    Map.Entry<String, int[]> entry = iterator.next();
+                    String value = values.get(entry.getKey());
+
+                    if(value != null || values.containsKey(entry.getKey())){
+                        for(int position : entry.getValue())
+                            setRouteParameter(position, value);
+
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+        else{
+            String param;
+            for(int i = 0; i < routeParameters.size(); i++){
+                param = routeParameters.get(i);
+
+                if(isPlaceholder(param)){
+                    String name = param.substring(1, param.length() - 1);
+
+                    if(values.containsKey(name))
+                        setRouteParameter(i, values.get(name));
+                }
             }
         }
 
@@ -178,24 +500,57 @@ public class HttpURL extends URL {
 
     /**
      * Adds a new query field.
+     * If there is already a field with the same name, its value is replaced and the field keeps its position.
      *
      * @param name the name of the field.
      * @param value the value of the field.
      * @return the HttpURL object
      */
     public HttpURL addQueryField(String name, String value){
-        this.queryFields.put(name, value);
+        modified();
+        materialize();
+
+        QueryParams queryParams = ownQueryParams();
+        queryParams.set(name, value);
+
+        if(encodeOnWrite)
+            queryParams.setEncodedField(queryParams.indexOf(name), encodeQueryField(name, value));
+
         return this;
     }
 
     /**
-     * Removes the query field whose name is given.
+     * Adds a new query field to the end, even if there is already a field with the same name.
+     *
+     * @param name the name of the field.
+     * @param value the value of the field.
+     * @return the HttpURL object
+     */
+    public HttpURL appendQueryField(String name, String value){
+        modified();
+        materialize();
+
+        QueryParams queryParams = ownQueryParams();
+        queryParams.add(name, value);
+
+        if(encodeOnWrite)
+            queryParams.setEncodedField(queryParams.size() - 1, encodeQueryField(name, value));
+
+        return this;
+    }
+
+    /**
+     * Removes all of the query fields whose name is given.
      *
      * @param name the name of the field to be removed.
      * @return the HttpURL object
      */
     public HttpURL removeQueryField(String name){
-        this.queryFields.remove(name);
+        modified();
+        materialize();
+
+        ownQueryParams().removeAll(name);
+
         return this;
     }
 
@@ -206,7 +561,13 @@ public class HttpURL extends URL {
      * @return the HttpURL object
      */
     public HttpURL setFragment(String fragment){
+        modified();
+        materialize();
         this.fragment = fragment;
+
+        if(encodeOnWrite)
+            encodedFragment = fragment != null ? encode(fragment, true) : null;
+
         return this;
     }
 
@@ -216,10 +577,61 @@ public class HttpURL extends URL {
      * @return the HttpURL object
      */
     public HttpURL clearFragment(){
+        modified();
+        materialize();
         this.fragment = null;
+        this.encodedFragment = null;
         return this;
     }
 
+    /**
+     * Creates a new HttpURL object that has the same components with this one.
+     * The route parameters and the query fields are not copied, they are shared by both of the objects until one of
+     * them is modified. So a URL can be built on a common base without building the base every time.
+     * Changes made on either of the objects after forking are not reflected to the other one, except the changes
+     * made through a list or a QueryParams object that has been obtained from a getter before forking.
+     *
+     * @return the new HttpURL object
+     */
+    public HttpURL fork(){
+        HttpURL fork = new HttpURL(getProtocol());
+
+        fork.host = host;
+        fork.asciiHost = asciiHost;
+        fork.preparedHost = preparedHost;
+        fork.wwwHost = wwwHost;
+        fork.asciiWWWHost = asciiWWWHost;
+        fork.ipAddress = ipAddress;
+        fork.port = port;
+        fork.shownWWW = shownWWW;
+        fork.routeParameters = routeParameters;
+        fork.routeParametersExposed = routeParametersExposed;
+        fork.queryParams = queryParams;
+        fork.fragment = fragment;
+        fork.encodeOnWrite = encodeOnWrite;
+        fork.encodedRouteParameters = encodedRouteParameters;
+        fork.encodedFragment = encodedFragment;
+        fork.decodedRouteParameters = decodedRouteParameters;
+        fork.decodedQueryFields = decodedQueryFields;
+        fork.scanner = scanner;
+        fork.fragmentScanned = fragmentScanned;
+
+        //# Collections that have been returned by the getters are shared too, and they can still be modified
+        if(!isStringCacheEnabled())
+            fork.disableStringCache();
+
+        //# Both of the objects must copy the shared collections before modifying them, a frozen one never modifies them
+        fork.routeParametersShared = routeParameters != null;
+        fork.queryParamsShared = queryParams != null;
+
+        if(!isFrozen()){
+            routeParametersShared = fork.routeParametersShared;
+            queryParamsShared = fork.queryParamsShared;
+        }
+
+        return fork;
+    }
+
     /**
      * Parses the given url.
      * This method must be called before all of the others in this class.
@@ -230,132 +642,752 @@ public class HttpURL extends URL {
      * @throws HttpURLParseError If the building of the URL has already been started.
      */
     public HttpURL setString(String url) throws MalformedHttpURLException, HttpURLParseError{
-        //Check if the building of the URL has been started before this method is called
-        if(host != null || port >= 0 || routeParameters.size() > 0 || queryFields.size() > 0 || fragment != null || urlString != null){
-            throw new HttpURLParseError("URL cannot be parsed if it is already being built");
-        }
-
-        this.urlString = url;
-        String cleanURL = url;
+        return setString(url, false);
+    }
 
-        //Clean protocol
-        cleanURL = cleanURL.replaceFirst("^https://|http://","");
+    /**
+     * Parses the given url.
+     * This method must be called before all of the others in this class.
+     *
+     * If the lazy argument is true, the URL is validated and the boundaries of its components are recorded, but
+     * the host name, the route parameters, the query fields and the fragment are created only when they are
+     * requested for the first time. Once the URL is modified, all of the components are created.
+     *
+     * @param url url to be parsed
+     * @param lazy true to create the components on demand
+     * @return the HttpURL object
+     * @throws MalformedHttpURLException If the given URL is malformed.
+     * @throws HttpURLParseError If the building of the URL has already been started.
+     */
+    public HttpURL setString(String url, boolean lazy) throws MalformedHttpURLException, HttpURLParseError{
+        return parse(url, lazy);
+    }
 
-        //Extraction
-        java.net.URL urlObj;
+    /**
+     * Parses the given UTF-8 encoded url.
+     * This method must be called before all of the others in this class.
+     *
+     * The URL is parsed lazily. Only the bytes that separate the components are read while parsing, and
+     * a component is decoded when it is requested for the first time. The bytes are not copied, so they
+     * must not be modified until all of the components are requested or the URL is modified.
+     *
+     * @param bytes the array that holds the url
+     * @param offset the index of the first byte of the url
+     * @param length number of the bytes of the url
+     * @return the HttpURL object
+     * @throws MalformedHttpURLException If the given URL is malformed.
+     * @throws HttpURLParseError If the building of the URL has already been started.
+     */
+    public HttpURL setBytes(byte[] bytes, int offset, int length) throws MalformedHttpURLException, HttpURLParseError{
+        if(offset < 0 || length < 0 || offset + length > bytes.length)
+            throw new IndexOutOfBoundsException("Invalid range: offset=" + offset + ", length=" + length);
 
-        try{
-            urlObj = new java.net.URL("http://"+cleanURL);
-        }
-        catch(java.net.MalformedURLException e){
-            throw new MalformedHttpURLException(e.getMessage());
-        }
+        return parse(new Utf8Sequence(ByteBuffer.wrap(bytes), offset, length), true);
+    }
 
-        //Extract Host
-        host = urlObj.getHost();
+    /**
+     * Parses the UTF-8 encoded url between the position and the limit of the given buffer.
+     * This method must be called before all of the others in this class. The position of the buffer is not changed.
+     *
+     * The URL is parsed lazily. Only the bytes that separate the components are read while parsing, and
+     * a component is decoded when it is requested for the first time. The bytes are not copied, so they
+     * must not be modified until all of the components are requested or the URL is modified.
+     *
+     * @param buffer the buffer that holds the url
+     * @return the HttpURL object
+     * @throws MalformedHttpURLException If the given URL is malformed.
+     * @throws HttpURLParseError If the building of the URL has already been started.
+     */
+    public HttpURL setBytes(ByteBuffer buffer) throws MalformedHttpURLException, HttpURLParseError{
+        return parse(new Utf8Sequence(buffer, buffer.position(), buffer.remaining()), true);
+    }
 
-        //Extract port
-        port = urlObj.getPort();
+    /**
+     * Parses the given url.
+     *
+     * @param url url to be parsed
+     * @param lazy true to create the components on demand
+     * @return the HttpURL object
+     * @throws MalformedHttpURLException If the given URL is malformed.
+     * @throws HttpURLParseError If the building of the URL has already been started.
+     */
+    HttpURL parse(CharSequence url, boolean lazy) throws MalformedHttpURLException, HttpURLParseError{
+        modified();
 
-        //Extract WWW Status
-        String[] hostPieces = host.split("\\.");
-        if(hostPieces.length >= 3 && host.startsWith("www")) {
-            shownWWW = true;
-            host = host.replaceFirst("www\\.","");
+        //Check if the building of the URL has been started before this method is called
+        if(host != null || port >= 0 || (routeParameters != null && routeParameters.size() > 0)
+                || (queryParams != null && !queryParams.isEmpty()) || fragment != null || parsed || scanner != null){
+            throw new HttpURLParseError("URL cannot be parsed if it is already being built");
         }
 
-        //Extract Route Parameters
-        if(urlObj.getPath() != null) {
-            String[] pieces = urlObj.getPath().replaceFirst("^/", "").split("/");
-            for(String piece : pieces){
-                if(!piece.trim().isEmpty())
-                    routeParameters.add(piece);
-            }
-        }
+        ParsedHttpURL components = cachedComponents(url);
+        HttpURLScanner scanner = components == null ? HttpURLScanner.scan(url) : null;
+        this.parsed = true;
 
-        //Extract Query Fields
-        if(urlObj.getQuery() != null) {
-            queryFields = new LinkedHashMap<>();
-            String[] variables = urlObj.getQuery().split("&");
-            for(String variable : variables){
-                String[] pieces = variable.split("=");
-                queryFields.put(pieces[0], pieces[1]);
-            }
-        }
+        port = components != null ? components.port() : scanner.port();
+        shownWWW = components != null ? components.isWWWShown() : scanner.isWWWShown();
+        routeParameters = null;
+        placeholders = null;
+        routeParametersExposed = false;
+        queryParams = null;
+        routeParametersShared = false;
+        queryParamsShared = false;
+        this.scanner = scanner;
 
-        //Extract Fragment
-        Pattern fragmentPattern = Pattern.compile("#.+");
-        Matcher fragmentMatcher = fragmentPattern.matcher(cleanURL);
-        if(fragmentMatcher.find()){
-            fragment = fragmentMatcher.group(0).replaceFirst("#", "");
-        }
+        if(components != null)
+            copyComponents(components);
+        else if(!lazy || encodeOnWrite)
+            materialize();
+
+        if(encodeOnWrite)
+            setEncodeOnWrite(true);
 
         return this;
     }
 
-
     /**
-     * Builds the URL and returns it as a string.
-     * If the encode argument is true, it also encodes the URL.
+     * Sets the cache that is shared by all of the HttpURL objects for storing the parsed URL strings.
      *
-     * @param encode true to encode the URL.
-     * @return the built URL
+     * @param cache the cache, or null to disable caching
      */
-    public String toString(boolean encode){
-        StringBuilder url = new StringBuilder();
-        boolean addSlash = true;
+    static void setParseCache(BoundedCache<String, ParsedHttpURL> cache){
+        parseCache = cache;
+    }
 
-        //Protocol
-        url.append(super.getProtocol());
+    /**
+     * Returns the cache that is shared by all of the HttpURL objects for storing the parsed URL strings.
+     *
+     * @return the cache, or null if caching is disabled
+     */
+    static BoundedCache<String, ParsedHttpURL> getParseCache(){
+        return parseCache;
+    }
 
-        //Host
-            //# Throw an error if the host name is null or empty
-            if(host == null || host.isEmpty())
-                throw new URLBuildException("Host name is null or empty. A host name must be set to build a http or https url.");
+    /**
+     * Returns the components of the given url from the parse cache, parses and caches them if they are not there.
+     * The components are immutable, so they can be shared by any number of HttpURL objects.
+     *
+     * @param url url to be parsed
+     * @return the components of the url, or null if the parse cache is disabled or the url is not a string
+     * @throws MalformedHttpURLException If the given URL is malformed.
+     */
+    private static ParsedHttpURL cachedComponents(CharSequence url) throws MalformedHttpURLException{
+        BoundedCache<String, ParsedHttpURL> cache = parseCache;
 
-        String hostPrepared = host.replaceFirst("^https://|http://|https:|http:","");
+        if(cache == null || !(url instanceof String))
+            return null;
 
-        if(shownWWW)
-            url.append("www.");
+        ParsedHttpURL components = cache.get((String) url);
+        if(components == null){
+            components = new ParsedHttpURL(HttpURLScanner.scan(url));
+            cache.put((String) url, components);
+        }
 
-        if(shownWWW && hostPrepared.split("\\.").length >= 3 && hostPrepared.startsWith("www"))
-            hostPrepared = hostPrepared.replaceFirst("www\\.","");
+        return components;
+    }
 
-        url.append(hostPrepared);
+    /**
+     * Copies the given components into the URL, so none of them has to be created from the URL string.
+     *
+     * @param components the components of the parsed URL
+     */
+    private void copyComponents(ParsedHttpURL components){
+        storeHost(components.host(), components.preparedHost(), components.ipAddress());
+        Collections.addAll(routeParameters(), components.routeParameters());
+        queryParams().addAll(components.queryNames(), components.queryValues());
+        fragment = components.fragment();
+        fragmentScanned = true;
+    }
 
-        //Port
-        if(port > -1){
-            url.append(":").append(port);
+    /**
+     * Returns the host name, extracts it from the parsed URL if it has not been created yet.
+     *
+     * @return the host name
+     */
+    private String host(){
+        if(host == null && scanner != null){
+            String scannedHost = scanner.host();
+            storeHost(scannedHost, removeProtocol(scannedHost, "https:", "http:"), scanner.ipAddress());
         }
 
-        //Route Parameters
-        if(routeParameters.size() > 0) {
-            url.append("/");
+        return host;
+    }
 
-            String param="";
-            for(int i = 0; i < routeParameters.size(); i++){
-                param = routeParameters.get(i);
+    /**
+     * Returns the ASCII form of the host name without the protocol, converts it if it has not been converted yet.
+     *
+     * @return the ASCII form of the host name, or null if there is no host name
+     */
+    private String asciiHost(){
+        if(asciiHost == null && host() != null){
+            //# An IP address is already in ASCII
+            asciiHost = ipAddress != null ? preparedHost : toASCIIHost(preparedHost);
+            asciiWWWHost = ipAddress != null ? preparedHost : removeWWW(asciiHost);
+        }
 
-                if (encode)
-                    param = encode(param, true);
+        return asciiHost;
+    }
 
+    /**
+     * Stores the given host name together with the forms of it that are appended to the URL,
+     * so the host name is cleaned only once. The canonical form of an IP address is appended instead of the host name.
+     *
+     * @param host the host name without slashes
+     * @param preparedHost the host name without slashes and the protocol
+     * @param ipAddress the IP address in the host name, or null if it is not an IP address
+     */
+    private void storeHost(String host, String preparedHost, IPAddress ipAddress){
+        this.host = host;
+        this.ipAddress = ipAddress;
+        this.preparedHost = ipAddress != null ? ipAddress.toHostString() : preparedHost;
+        this.wwwHost = ipAddress != null ? this.preparedHost : host != null ? removeWWW(preparedHost) : null;
+        this.asciiHost = null;
+        this.asciiWWWHost = null;
+    }
 
-                if(i > 0)
-                    url.append("/");
+    /**
+     * Returns the host name that is appended to the URL after the protocol, without the "www." that is added
+     * when WWW is shown.
+     *
+     * @param encode true for the ASCII form of the host name
+     * @return the host name to be appended, or null if there is no host name
+     */
+    private String authorityHost(boolean encode){
+        String host = encode ? asciiHost() : host();
 
-                url.append(param);
-            }
+        if(host == null)
+            return null;
 
-            //# If the latest param is a directory, add a slash (/) at the end
-            if(!param.contains(".")) {
-                url.append("/");
-            }
+        if(encode)
+            return shownWWW ? asciiWWWHost : asciiHost;
 
-            addSlash = false;
+        return shownWWW ? wwwHost : preparedHost;
+    }
+
+    /**
+     * Removes the "www." from the given host name if it has at least three labels and it starts with "www",
+     * since "www." is added in front of the host name when WWW is shown.
+     *
+     * @param host the host name without the protocol
+     * @return the host name without "www."
+     */
+    private static String removeWWW(String host){
+        if(!host.startsWith("www"))
+            return host;
+
+        //# Labels are counted in the same way as splitting the host name at the dots, ignoring the trailing empty ones
+        int end = host.length();
+        while(end > 0 && host.charAt(end - 1) == '.')
+            end--;
+
+        int labels = 1;
+        for(int i = 0; i < end; i++){
+            if(host.charAt(i) == '.')
+                labels++;
         }
 
-        //Query Fields
-        if(queryFields.size() > 0) {
+        int index = host.indexOf("www.");
+        if(labels < 3 || index < 0)
+            return host;
+
+        return host.substring(0, index).concat(host.substring(index + 4));
+    }
+
+    /**
+     * Returns the list of the route parameters, creates it if it has not been created yet.
+     *
+     * @return the route parameters
+     */
+    private ArrayList<String> routeParameters(){
+        if(routeParameters == null){
+            //# An emptied list is kept by the reset method to be reused
+            routeParameters = spareRouteParameters != null ? spareRouteParameters : new ArrayList<>();
+            spareRouteParameters = null;
+
+            if(scanner != null)
+                scanner.addRouteParameters(routeParameters);
+        }
+
+        return routeParameters;
+    }
+
+    /**
+     * Returns the query fields, creates them if they have not been created yet.
+     *
+     * @return the query fields
+     */
+    private QueryParams queryParams(){
+        if(queryParams == null){
+            queryParams = spareQueryParams != null ? spareQueryParams : new QueryParams();
+            spareQueryParams = null;
+
+            if(scanner != null)
+                scanner.forEachQueryField(queryParams::add);
+        }
+
+        return queryParams;
+    }
+
+    /**
+     * Returns the list of the route parameters to be modified.
+     * If the list is shared with a forked URL, it is copied first together with the encoded forms.
+     *
+     * @return the route parameters
+     */
+    private ArrayList<String> ownRouteParameters(){
+        if(routeParametersShared){
+            routeParameters = new ArrayList<>(routeParameters);
+
+            if(encodedRouteParameters != null)
+                encodedRouteParameters = new ArrayList<>(encodedRouteParameters);
+
+            routeParametersShared = false;
+        }
+
+        return routeParameters();
+    }
+
+    /**
+     * Returns the query fields to be modified. If they are shared with a forked URL, they are copied first.
+     *
+     * @return the query fields
+     */
+    private QueryParams ownQueryParams(){
+        if(queryParamsShared){
+            queryParams = queryParams.copy();
+            queryParamsShared = false;
+        }
+
+        return queryParams();
+    }
+
+    /**
+     * Returns the fragment, extracts it from the parsed URL if it has not been created yet.
+     *
+     * @return the fragment
+     */
+    private String fragment(){
+        if(!fragmentScanned && scanner != null){
+            fragment = scanner.fragment();
+            fragmentScanned = true;
+        }
+
+        return fragment;
+    }
+
+    /**
+     * Creates all of the components that have not been created yet and discards the parsed URL.
+     * Must be called before the URL is modified.
+     */
+    private void materialize(){
+        if(scanner != null){
+            host();
+            routeParameters();
+            queryParams();
+            fragment();
+            scanner = null;
+        }
+    }
+
+    /**
+     * Discards the values that are derived from the components of the URL, including the decoded forms.
+     * Must be called whenever the route parameters or the query fields might be changed.
+     */
+    @Override
+    void modified(){
+        super.modified();
+        decodedRouteParameters = null;
+        decodedQueryFields = null;
+    }
+
+    /**
+     * Adds the given value to the end of the route parameters without splitting it.
+     *
+     * @param param parameter to be added.
+     */
+    private void addRouteParameter(String param){
+        ArrayList<String> routeParameters = ownRouteParameters();
+
+        if(placeholders != null && isPlaceholder(param))
+            placeholders.merge(param.substring(1, param.length() - 1), new int[]{routeParameters.size()}, HttpURL::concat);
+
+        routeParameters.add(param);
+
+        if(encodeOnWrite)
+            encodedRouteParameters.add(encode(param, true));
+    }
+
+    /**
+     * Sets the route parameter at the given position together with its encoded form.
+     *
+     * @param index position of the route parameter
+     * @param value the new value of the route parameter
+     */
+    private void setRouteParameter(int index, String value){
+        routeParameters.set(index, value);
+
+        //# A value that is a placeholder itself can be replaced later, so it must be indexed
+        if(value != null && isPlaceholder(value))
+            placeholders = null;
+
+        if(encodeOnWrite)
+            encodedRouteParameters.set(index, encode(value, true));
+    }
+
+    /**
+     * Returns the positions of the placeholders in the route parameters by their names, indexes them if they have not
+     * been indexed since the structure has been parsed or the route parameters have been reordered.
+     * Returns null if the route parameters have been returned by the getter, since they might be changed without notice.
+     *
+     * @return the positions of the placeholders, or null if they cannot be indexed
+     */
+    private Map<String, int[]> placeholders(){
+        if(placeholders == null && !routeParametersExposed){
+            placeholders = new HashMap<>();
+
+            String param;
+            for(int i = 0; i < routeParameters.size(); i++){
+                param = routeParameters.get(i);
+
+                if(isPlaceholder(param))
+                    placeholders.merge(param.substring(1, param.length() - 1), new int[]{i}, HttpURL::concat);
+            }
+        }
+
+        return placeholders;
+    }
+
+    /**
+     * Returns a boolean value indicating that if the given route parameter is a placeholder, such as "{id}".
+     *
+     * @param param the route parameter
+     * @return true if it is a placeholder
+     */
+    private static boolean isPlaceholder(String param){
+        return param.length() >= 2 && param.charAt(0) == '{' && param.charAt(param.length() - 1) == '}';
+    }
+
+    /**
+     * Returns a boolean value indicating that if the given route parameter is the placeholder whose name is given,
+     * without creating the placeholder string.
+     *
+     * @param param the route parameter
+     * @param name the name of the placeholder
+     * @return true if it is the placeholder
+     */
+    private static boolean isPlaceholder(String param, String name){
+        return param.length() == name.length() + 2 && param.charAt(0) == '{'
+                && param.charAt(param.length() - 1) == '}' && param.regionMatches(1, name, 0, name.length());
+    }
+
+    /**
+     * Returns the positions in both of the given arrays.
+     */
+    private static int[] concat(int[] first, int[] second){
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * Encodes the given query field and returns it in the "name=value" form.
+     *
+     * @param name the name of the field.
+     * @param value the value of the field.
+     * @return the encoded query field
+     */
+    private String encodeQueryField(String name, String value){
+        return encode(name, true) + "=" + encode(value, true);
+    }
+
+
+    /**
+     * Returns an immutable copy of the URL. The URL itself is returned if it is already frozen.
+     * The getters of a frozen URL return unmodifiable collections.
+     *
+     * @return the frozen HttpURL object
+     */
+    @Override
+    public HttpURL freeze(){
+        if(isFrozen())
+            return this;
+
+        materialize();
+
+        HttpURL frozen = new HttpURL(getProtocol());
+        frozen.host = host;
+        frozen.asciiHost = asciiHost;
+        frozen.preparedHost = preparedHost;
+        frozen.wwwHost = wwwHost;
+        frozen.asciiWWWHost = asciiWWWHost;
+        frozen.ipAddress = ipAddress;
+        frozen.port = port;
+        frozen.shownWWW = shownWWW;
+        frozen.routeParameters = new ArrayList<>(routeParameters());
+        frozen.queryParams = queryParams().copy().freeze();
+        frozen.fragment = fragment;
+        frozen.fragmentScanned = true;
+        frozen.encodeOnWrite = encodeOnWrite;
+        frozen.encodedRouteParameters = encodedRouteParameters != null ? new ArrayList<>(encodedRouteParameters) : null;
+        frozen.encodedFragment = encodedFragment;
+
+        //# A frozen URL can be read by multiple threads, so the lazily computed components are computed before it is published
+        try{
+            frozen.asciiHost();
+        }
+        catch(URLBuildException e){
+            //# The host name is converted again and the error is thrown when the URL is encoded, nothing is stored
+        }
+
+        frozen.getDecodedRouteParams();
+        frozen.getDecodedQueryFields();
+        frozen.markFrozen();
+        return frozen;
+    }
+
+    /**
+     * Clears all of the components of the URL and turns the encode-on-write mode off, so the object can be used
+     * to build another URL of the same protocol, including parsing a URL with the setString method.
+     * The route parameters and the query fields are emptied instead of being replaced, so their capacities are kept.
+     * If they are shared with a forked URL or they have been returned by the getters, new ones are created instead.
+     *
+     * @return the HttpURL object
+     * @throws UnsupportedOperationException If the URL is frozen.
+     */
+    @Override
+    public HttpURL reset(){
+        modified();
+
+        //# Collections that might be used by others are left to them
+        boolean exposed = !isStringCacheEnabled();
+
+        if(routeParameters != null && !routeParametersShared && !exposed){
+            routeParameters.clear();
+            spareRouteParameters = routeParameters;
+        }
+
+        if(queryParams != null && !queryParamsShared && !exposed){
+            queryParams.clear();
+            spareQueryParams = queryParams;
+        }
+
+        routeParameters = null;
+        queryParams = null;
+
+        storeHost(null, null, null);
+        port = -1;
+        shownWWW = false;
+        fragment = null;
+        parsed = false;
+        encodeOnWrite = false;
+        encodedRouteParameters = null;
+        encodedFragment = null;
+        scanner = null;
+        fragmentScanned = false;
+        placeholders = null;
+        routeParametersExposed = false;
+        routeParametersShared = false;
+        queryParamsShared = false;
+        enableStringCache();
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if(this == o)
+            return true;
+
+        if(!(o instanceof HttpURL))
+            return false;
+
+        HttpURL other = (HttpURL) o;
+        return getProtocol().equals(other.getProtocol()) && port == other.port && shownWWW == other.shownWWW
+                && Objects.equals(hostKey(), other.hostKey()) && routeParameters().equals(other.routeParameters())
+                && queryParams().equals(other.queryParams()) && Objects.equals(fragment(), other.fragment());
+    }
+
+    /**
+     * Returns the IP address if the host name is an IP address, so different forms of the same address are equal,
+     * or the host name otherwise.
+     */
+    private Object hostKey(){
+        String host = host();
+        return ipAddress != null ? ipAddress : host;
+    }
+
+    @Override
+    int hashComponents(){
+        return Objects.hash(getProtocol(), hostKey(), port, shownWWW, routeParameters(), queryParams(), fragment());
+    }
+
+    /**
+     * Builds the URL and appends it to the given builder.
+     * If the encode argument is true, it also encodes the URL and converts an internationalized host name to ASCII.
+     *
+     * @param url the builder that the URL is appended to
+     * @param encode true to encode the URL.
+     * @throws URLBuildException If the host name is not set or it cannot be converted to ASCII.
+     */
+    void build(StringBuilder url, boolean encode){
+        //Protocol
+        url.append(super.getProtocol());
+
+        //Host and Port
+        appendAuthority(url, encode);
+
+        //Route Parameters and Query Fields
+        boolean addSlash = !appendPathAndQuery(url, encode);
+
+        //Fragment
+        String fragment = fragment();
+        if(fragment != null) {
+            if(addSlash)
+                url.append("/");
+
+            url.append("#");
+
+            if(encode && encodeOnWrite && encodedFragment != null)
+                url.append(encodedFragment);
+            else if(encode)
+                appendEncoded(fragment, true, url);
+            else
+                url.append(fragment);
+        }
+    }
+
+    @Override
+    int length(boolean encode){
+        //Protocol
+        int length = super.getProtocol().length();
+
+        //Host and Port
+        String host = authorityHost(encode);
+
+        if(host != null)
+            length += host.length();
+
+        if(shownWWW)
+            length += 4;
+
+        if(port > -1)
+            length += 1 + digitCount(port);
+
+        //Route Parameters
+        ArrayList<String> routeParameters = routeParameters();
+        QueryParams queryParams = queryParams();
+        boolean useEncodedForms = encode && encodeOnWrite
+                && encodedRouteParameters.size() == routeParameters.size();
+
+        if(routeParameters.size() > 0){
+            String param = "";
+            for(int i = 0; i < routeParameters.size(); i++){
+                param = routeParameters.get(i);
+                length += 1 + (useEncodedForms ? encodedRouteParameters.get(i).length() : length(param, true, encode));
+            }
+
+            if(!param.contains("."))
+                length++;
+        }
+
+        //Query Fields
+        if(queryParams.size() > 0){
+            if(routeParameters.isEmpty())
+                length++;
+
+            String encodedField;
+            for(int i = 0; i < queryParams.size(); i++){
+                encodedField = encode ? queryParams.getEncodedField(i) : null;
+
+                if(encodedField != null)
+                    length += 1 + encodedField.length();
+                else
+                    length += 2 + length(queryParams.getName(i), true, encode) + length(queryParams.getValue(i), true, encode);
+            }
+        }
+
+        //Fragment
+        String fragment = fragment();
+        if(fragment != null){
+            if(routeParameters.isEmpty() && queryParams.isEmpty())
+                length++;
+
+            length += 1 + (encode && encodeOnWrite && encodedFragment != null ? encodedFragment.length() : length(fragment, true, encode));
+        }
+
+        return length;
+    }
+
+    /**
+     * Appends the host name and the port number of the URL to the given builder.
+     *
+     * @param url the builder that the authority is appended to
+     * @param encode true to convert an internationalized host name to ASCII
+     * @throws URLBuildException If the host name is not set or it cannot be converted to ASCII.
+     */
+    private void appendAuthority(StringBuilder url, boolean encode){
+        String host = encode ? asciiHost() : host();
+
+        //Host
+            //# Throw an error if the host name is null or empty
+            if(host == null || host.isEmpty())
+                throw new URLBuildException("Host name is null or empty. A host name must be set to build a http or https url.");
+
+        if(shownWWW)
+            url.append("www.");
+
+        url.append(authorityHost(encode));
+
+        //Port
+        if(port > -1){
+            url.append(":").append(port);
+        }
+    }
+
+    /**
+     * Appends the route parameters and the query fields of the URL to the given builder.
+     *
+     * @param url the builder that the path and the query are appended to
+     * @param encode true to encode the route parameters and the query fields
+     * @return true if anything has been appended
+     */
+    private boolean appendPathAndQuery(StringBuilder url, boolean encode){
+        boolean addSlash = true;
+        ArrayList<String> routeParameters = routeParameters();
+        QueryParams queryParams = queryParams();
+
+        //# Use the stored encoded forms if they have been kept in sync with the raw ones
+        boolean useEncodedForms = encode && encodeOnWrite
+                && encodedRouteParameters.size() == routeParameters.size();
+
+        //Route Parameters
+        if(routeParameters.size() > 0) {
+            url.append("/");
+
+            String param="";
+            for(int i = 0; i < routeParameters.size(); i++){
+                param = routeParameters.get(i);
+
+                if(i > 0)
+                    url.append("/");
+
+                if(useEncodedForms)
+                    url.append(encodedRouteParameters.get(i));
+                else if(encode)
+                    appendEncoded(param, true, url);
+                else
+                    url.append(param);
+            }
+
+            //# If the latest param is a directory, add a slash (/) at the end
+            if(!param.contains(".")) {
+                url.append("/");
+            }
+
+            addSlash = false;
+        }
+
+        //Query Fields
+        if(queryParams.size() > 0) {
             if(addSlash) {
                 url.append("/");
                 addSlash = false;
@@ -363,49 +1395,110 @@ public class HttpURL extends URL {
 
             url.append("?");
 
-            boolean addDelimiter = false;
-            String value;
-            for (String key : queryFields.keySet()) {
-                if (addDelimiter)
+            String encodedField;
+            for (int i = 0; i < queryParams.size(); i++) {
+                if (i > 0)
                     url.append("&");
-                else
-                    addDelimiter = true;
 
-                value = queryFields.get(key);
+                //# A stored encoded form is discarded when its field is changed through the QueryParams object
+                encodedField = encode ? queryParams.getEncodedField(i) : null;
 
-                if(encode){
-                    key = encode(key, true);
-                    value = encode(value, true);
+                if(encodedField != null)
+                    url.append(encodedField);
+                else if(encode){
+                    appendEncoded(queryParams.getName(i), true, url);
+                    url.append("=");
+                    appendEncoded(queryParams.getValue(i), true, url);
                 }
-
-                url.append(key).append("=").append(value);
+                else
+                    url.append(queryParams.getName(i)).append("=").append(queryParams.getValue(i));
             }
         }
 
-        //Fragment
-        if(fragment != null) {
-            String fragmentPrepared = fragment;
+        return !addSlash;
+    }
 
-            if(encode)
-                fragmentPrepared = encode(fragmentPrepared, true);
+    /**
+     * Returns the number of the bytes that the given form of the URL is encoded to with UTF-8.
+     * A buffer of this size is enough for writing the same form of the URL until the URL is modified.
+     *
+     * @param form the form of the URL
+     * @param encode true to encode the URL.
+     * @return the number of the bytes
+     * @throws URLBuildException If the URL cannot be built.
+     */
+    public int getByteLength(Form form, boolean encode){
+        RenderBuffer buffer = renderBuffer();
+        int length = Utf8Encoder.length(render(form, encode, buffer));
 
-            if(addSlash)
-                url.append("/");
+        buffer.release();
+        return length;
+    }
 
-            url.append("#").append(fragmentPrepared);
-        }
+    /**
+     * Encodes the given form of the URL with UTF-8 and writes the bytes to the given buffer,
+     * starting from its current position. The position of the buffer is advanced by the number of the bytes.
+     *
+     * @param out the buffer that the URL is written to
+     * @param form the form of the URL
+     * @param encode true to encode the URL.
+     * @return the given buffer
+     * @throws BufferOverflowException If there is not enough room in the buffer, in which case nothing is written.
+     * @throws URLBuildException If the URL cannot be built.
+     */
+    public ByteBuffer writeTo(ByteBuffer out, Form form, boolean encode){
+        RenderBuffer buffer = renderBuffer();
+        CharSequence url = render(form, encode, buffer);
 
-        return url.toString();
+        if(out.remaining() < Utf8Encoder.length(url))
+            throw new BufferOverflowException();
+
+        Utf8Encoder.write(url, out);
+        buffer.release();
+        return out;
     }
 
     /**
-     * Builds the URL and returns it as a string.
+     * Encodes the given form of the URL with UTF-8 and writes the bytes to the given stream.
+     * The bytes are written at once with a buffer that is reused by the thread.
      *
-     * @return the built URL
+     * @param out the stream that the URL is written to
+     * @param form the form of the URL
+     * @param encode true to encode the URL.
+     * @throws IOException If the bytes cannot be written to the stream.
+     * @throws URLBuildException If the URL cannot be built.
      */
-    @Override
-    public String toString(){
-        return toString(false);
+    public void writeTo(OutputStream out, Form form, boolean encode) throws IOException{
+        RenderBuffer buffer = renderBuffer();
+        CharSequence url = render(form, encode, buffer);
+        byte[] bytes = buffer.bytes(Utf8Encoder.length(url));
+        int length = Utf8Encoder.write(url, bytes, 0);
+
+        out.write(bytes, 0, length);
+        buffer.release();
+    }
+
+    /**
+     * Builds the given form of the URL in the render buffer of the thread. The whole URL is copied from the kept
+     * strings if it has been built before, but it is not kept as a string otherwise.
+     *
+     * @param form the form of the URL
+     * @param encode true to encode the URL.
+     * @param buffer the render buffer of the thread
+     * @return the built form of the URL
+     */
+    private CharSequence render(Form form, boolean encode, RenderBuffer buffer){
+        StringBuilder url = buffer.builder;
+
+        if(form == Form.ABSOLUTE)
+            return appendTo(url, encode);
+
+        if(form == Form.AUTHORITY)
+            appendAuthority(url, encode);
+        else if(!appendPathAndQuery(url, encode))
+            url.append("/");
+
+        return url;
     }
 
     /**
@@ -429,4 +1522,310 @@ public class HttpURL extends URL {
     public java.net.URL toURL() throws java.net.MalformedURLException{
         return new java.net.URL(toString(false));
     }
-}
\ No newline at end of file
+
+    /**
+     * The map that is returned by the getQueryFields method. It holds no entries itself, all of its methods are
+     * forwarded to a QueryFieldView object, since the methods inherited from the LinkedHashMap class would use
+     * its own table. It is serialized as a copy of the fields.
+     */
+    private final class QueryFieldMap extends LinkedHashMap<String, String> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient QueryFieldView view = new QueryFieldView();
+
+        @Override
+        public int size(){
+            return view.size();
+        }
+
+        @Override
+        public boolean isEmpty(){
+            return view.isEmpty();
+        }
+
+        @Override
+        public boolean containsKey(Object key){
+            return view.containsKey(key);
+        }
+
+        @Override
+        public boolean containsValue(Object value){
+            return view.containsValue(value);
+        }
+
+        @Override
+        public String get(Object key){
+            return view.get(key);
+        }
+
+        @Override
+        public String getOrDefault(Object key, String defaultValue){
+            return view.getOrDefault(key, defaultValue);
+        }
+
+        @Override
+        public String put(String name, String value){
+            return view.put(name, value);
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ? extends String> fields){
+            view.putAll(fields);
+        }
+
+        @Override
+        public String putIfAbsent(String name, String value){
+            return view.putIfAbsent(name, value);
+        }
+
+        @Override
+        public String remove(Object key){
+            return view.remove(key);
+        }
+
+        @Override
+        public boolean remove(Object key, Object value){
+            return view.remove(key, value);
+        }
+
+        @Override
+        public String replace(String name, String value){
+            return view.replace(name, value);
+        }
+
+        @Override
+        public boolean replace(String name, String oldValue, String newValue){
+            return view.replace(name, oldValue, newValue);
+        }
+
+        @Override
+        public String computeIfAbsent(String name, Function<? super String, ? extends String> mappingFunction){
+            return view.computeIfAbsent(name, mappingFunction);
+        }
+
+        @Override
+        public String computeIfPresent(String name, BiFunction<? super String, ? super String, ? extends String> remappingFunction){
+            return view.computeIfPresent(name, remappingFunction);
+        }
+
+        @Override
+        public String compute(String name, BiFunction<? super String, ? super String, ? extends String> remappingFunction){
+            return view.compute(name, remappingFunction);
+        }
+
+        @Override
+        public String merge(String name, String value, BiFunction<? super String, ? super String, ? extends String> remappingFunction){
+            return view.merge(name, value, remappingFunction);
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super String, ? super String> action){
+            view.forEach(action);
+        }
+
+        @Override
+        public void replaceAll(BiFunction<? super String, ? super String, ? extends String> function){
+            view.replaceAll(function);
+        }
+
+        @Override
+        public void clear(){
+            view.clear();
+        }
+
+        @Override
+        public Set<String> keySet(){
+            return view.keySet();
+        }
+
+        @Override
+        public Collection<String> values(){
+            return view.values();
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet(){
+            return view.entrySet();
+        }
+
+        @Override
+        public boolean equals(Object o){
+            return view.equals(o);
+        }
+
+        @Override
+        public int hashCode(){
+            return view.hashCode();
+        }
+
+        @Override
+        public String toString(){
+            return view.toString();
+        }
+
+        /**
+         * Returns a copy of the fields, which is not a view of the URL.
+         */
+        @Override
+        public Object clone(){
+            return new LinkedHashMap<>(view);
+        }
+
+        private Object writeReplace(){
+            return new LinkedHashMap<>(view);
+        }
+    }
+
+    /**
+     * A map view of the query fields. Values are read from the current query fields of the URL and the changes are made
+     * through the methods of the URL, so the URL is copied, encoded and rebuilt in the same way as it is modified directly.
+     */
+    private final class QueryFieldView extends AbstractMap<String, String> {
+        @Override
+        public int size(){
+            QueryParams queryParams = queryParams();
+            Set<String> names = new HashSet<>();
+
+            for(int i = 0; i < queryParams.size(); i++)
+                names.add(queryParams.getName(i));
+
+            return names.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key){
+            return key instanceof String && queryParams().contains((String) key);
+        }
+
+        @Override
+        public String get(Object key){
+            return key instanceof String ? queryParams().get((String) key) : null;
+        }
+
+        @Override
+        public String put(String name, String value){
+            String previous = get(name);
+            addQueryField(name, value);
+            return previous;
+        }
+
+        @Override
+        public String remove(Object key){
+            if(!containsKey(key))
+                return null;
+
+            String previous = get(key);
+            removeQueryField((String) key);
+            return previous;
+        }
+
+        @Override
+        public void clear(){
+            modified();
+            materialize();
+            ownQueryParams().clear();
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet(){
+            return new AbstractSet<Entry<String, String>>(){
+                @Override
+                public int size(){
+                    return QueryFieldView.this.size();
+                }
+
+                @Override
+                public Iterator<Entry<String, String>> iterator(){
+                    return new FieldIterator();
+                }
+            };
+        }
+
+        /**
+         * Iterates over the names in the order of their first occurrences.
+         */
+        private final class FieldIterator implements Iterator<Entry<String, String>> {
+            private final Set<String> visited = new HashSet<>();
+            private int next;
+            private int current = -1;
+
+            @Override
+            public boolean hasNext(){
+                QueryParams queryParams = queryParams();
+
+                //# Names of the visited fields can only occur after them, the removed ones do not occur at all
+                while(next < queryParams.size() && visited.contains(queryParams.getName(next)))
+                    next++;
+
+                return next < queryParams.size();
+            }
+
+            @Override
+            public Entry<String, String> next(){
+                if(!hasNext())
+                    throw new NoSuchElementException();
+
+                current = next++;
+                String name = queryParams().getName(current);
+                visited.add(name);
+                return new FieldEntry(name);
+            }
+
+            @Override
+            public void remove(){
+                if(current < 0)
+                    throw new IllegalStateException();
+
+                //# The fields before the removed one are not moved, so the unvisited names start at its position
+                removeQueryField(queryParams().getName(current));
+                next = current;
+                current = -1;
+            }
+        }
+
+        /**
+         * A field of the map, its value is read from the URL and it is written to the URL.
+         */
+        private final class FieldEntry implements Entry<String, String> {
+            private final String name;
+
+            FieldEntry(String name){
+                this.name = name;
+            }
+
+            @Override
+            public String getKey(){
+                return name;
+            }
+
+            @Override
+            public String getValue(){
+                return get(name);
+            }
+
+            @Override
+            public String setValue(String value){
+                return put(name, value);
+            }
+
+            @Override
+            public boolean equals(Object o){
+                if(!(o instanceof Entry))
+                    return false;
+
+                Entry<?, ?> other = (Entry<?, ?>) o;
+                return name.equals(other.getKey()) && Objects.equals(getValue(), other.getValue());
+            }
+
+            @Override
+            public int hashCode(){
+                return name.hashCode() ^ Objects.hashCode(getValue());
+            }
+
+            @Override
+            public String toString(){
+                return name + "=" + getValue();
+            }
+        }
+    }
+}
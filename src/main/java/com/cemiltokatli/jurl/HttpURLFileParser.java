@@ -0,0 +1,208 @@
+package com.cemiltokatli.jurl;
+
+import com.cemiltokatli.jurl.exception.MalformedHttpURLException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses the Http(s) URLs in a file that contains a URL on each line.
+ *
+ * The file is mapped into memory and split into chunks at line boundaries. The chunks are parsed in parallel on
+ * a fork-join pool and each line is parsed lazily, directly from the mapped bytes. Empty lines are skipped and
+ * both "\n" and "\r\n" line endings are accepted.
+ */
+public final class HttpURLFileParser {
+    /**
+     * Maximum number of bytes that are mapped at once.
+     */
+    private static final int MAX_WINDOW_SIZE = 1 << 30;
+
+    /**
+     * Chunks smaller than this are not split any further.
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 18;
+
+    private HttpURLFileParser(){
+    }
+
+    /**
+     * Receives the results of a parsing operation.
+     * The methods of a listener are called by multiple threads at the same time and in no particular order,
+     * so they must be thread-safe.
+     */
+    public interface Listener {
+        /**
+         * Called when a line is parsed successfully.
+         * The URL is parsed lazily and refers to the mapped file until its components are requested.
+         *
+         * @param offset position of the first byte of the line in the file
+         * @param url the parsed URL
+         */
+        void onURL(long offset, HttpURL url);
+
+        /**
+         * Called when a line cannot be parsed.
+         *
+         * @param offset position of the first byte of the line in the file
+         * @param line the line that cannot be parsed
+         * @param exception the error
+         */
+        void onError(long offset, String line, MalformedHttpURLException exception);
+    }
+
+    /**
+     * Parses the URLs in the given file on the common fork-join pool.
+     *
+     * @param file the file to be parsed
+     * @param protocol protocol of the URLs to be created, either Protocol.HTTP or Protocol.HTTPS
+     * @param listener the listener that receives the parsed URLs and the errors
+     * @throws IOException If the file cannot be read or it has a line longer than 1 GB.
+     */
+    public static void parse(Path file, Protocol<HttpURL> protocol, Listener listener) throws IOException{
+        parse(file, protocol, listener, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses the URLs in the given file on the given fork-join pool.
+     * This method returns when all of the lines are parsed.
+     *
+     * @param file the file to be parsed
+     * @param protocol protocol of the URLs to be created, either Protocol.HTTP or Protocol.HTTPS
+     * @param listener the listener that receives the parsed URLs and the errors
+     * @param pool the pool that parses the chunks of the file
+     * @throws IOException If the file cannot be read or it has a line longer than 1 GB.
+     */
+    public static void parse(Path file, Protocol<HttpURL> protocol, Listener listener, ForkJoinPool pool) throws IOException{
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            long size = channel.size();
+            long position = 0;
+
+            while(position < size){
+                int windowSize = (int) Math.min(MAX_WINDOW_SIZE, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                int end = windowSize;
+
+                //# A window must end at a line boundary unless it is the last one
+                if(position + windowSize < size){
+                    end = lastIndexOf(window, windowSize, (byte) '\n') + 1;
+
+                    if(end == 0)
+                        throw new IOException("Line at offset " + position + " is longer than " + MAX_WINDOW_SIZE + " bytes");
+                }
+
+                pool.invoke(new ChunkTask(window, 0, end, position, protocol.getProtocol(), listener));
+                position += end;
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the last occurrence of the given byte before the given index, or -1.
+     */
+    private static int lastIndexOf(MappedByteBuffer buffer, int end, byte b){
+        for(int i = end - 1; i >= 0; i--){
+            if(buffer.get(i) == b)
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Parses the lines between two indexes of a mapped window, splits the range in two if it is large.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final MappedByteBuffer window;
+        private final int start;
+        private final int end;
+        private final long windowPosition;
+        private final String protocol;
+        private final Listener listener;
+
+        ChunkTask(MappedByteBuffer window, int start, int end, long windowPosition, String protocol, Listener listener){
+            this.window = window;
+            this.start = start;
+            this.end = end;
+            this.windowPosition = windowPosition;
+            this.protocol = protocol;
+            this.listener = listener;
+        }
+
+        @Override
+        protected void compute(){
+            if(end - start > MIN_CHUNK_SIZE){
+                int middle = start + (end - start) / 2;
+
+                while(middle < end && window.get(middle - 1) != '\n')
+                    middle++;
+
+                if(middle < end){
+                    invokeAll(new ChunkTask(window, start, middle, windowPosition, protocol, listener),
+                              new ChunkTask(window, middle, end, windowPosition, protocol, listener));
+                    return;
+                }
+            }
+
+            parseLines();
+        }
+
+        /**
+         * Parses each line of the chunk one after another.
+         */
+        private void parseLines(){
+            int lineStart = start;
+
+            for(int i = start; i <= end; i++){
+                if(i == end || window.get(i) == '\n'){
+                    int lineEnd = i;
+
+                    if(lineEnd > lineStart && window.get(lineEnd - 1) == '\r')
+                        lineEnd--;
+
+                    if(!isBlank(lineStart, lineEnd))
+                        parseLine(lineStart, lineEnd);
+
+                    lineStart = i + 1;
+                }
+            }
+        }
+
+        /**
+         * Parses a single line and passes the result to the listener.
+         */
+        private void parseLine(int lineStart, int lineEnd){
+            Utf8Sequence line = new Utf8Sequence(window, lineStart, lineEnd - lineStart);
+            HttpURL url = new HttpURL(protocol);
+
+            try{
+                url.parse(line, true);
+            }
+            catch(MalformedHttpURLException e){
+                listener.onError(windowPosition + lineStart, line.toString(), e);
+                return;
+            }
+
+            listener.onURL(windowPosition + lineStart, url);
+        }
+
+        /**
+         * Checks if the bytes between the given indexes are all whitespace.
+         */
+        private boolean isBlank(int from, int to){
+            for(int i = from; i < to; i++){
+                if((window.get(i) & 0xFF) > ' ')
+                    return false;
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.cemiltokatli.jurl;
+
+import com.cemiltokatli.jurl.exception.MalformedHttpURLException;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Splits a Http(s) URL string into its components in a single left-to-right pass.
+ *
+ * The scanner does not create any string while scanning, it only records the boundaries of the components
+ * as indexes in the source. The components are extracted by the methods of this class.
+ * An object of this class is immutable once it is created.
+ */
+final class HttpURLScanner {
+    private final CharSequence source;
+    private final int hostStart;
+    private final int hostEnd;
+    private final boolean www;
+    private final IPAddress ipAddress;
+    private final int port;
+    private final int pathStart;
+    private final int pathEnd;
+    private final int queryStart;
+    private final int queryEnd;
+    private final int fragmentStart;
+    private final int end;
+
+    /**
+     * Creates a new scanner object with the given boundaries.
+     */
+    private HttpURLScanner(CharSequence source, int hostStart, int hostEnd, boolean www, IPAddress ipAddress, int port, int pathStart,
+                           int pathEnd, int queryStart, int queryEnd, int fragmentStart, int end){
+        this.source = source;
+        this.hostStart = hostStart;
+        this.hostEnd = hostEnd;
+        this.www = www;
+        this.ipAddress = ipAddress;
+        this.port = port;
+        this.pathStart = pathStart;
+        this.pathEnd = pathEnd;
+        this.queryStart = queryStart;
+        this.queryEnd = queryEnd;
+        this.fragmentStart = fragmentStart;
+        this.end = end;
+    }
+
+    /**
+     * Scans the given URL string.
+     * The source can also be a Utf8Sequence, in which case the components are decoded when they are extracted.
+     * The protocol ("http://" or "https://") is optional. The "www." prefix of the host name is recorded separately
+     * if the host name has at least three labels. An IPv4 or IPv6 address in the host name is parsed in the same pass.
+     *
+     * @param source the URL string to be scanned
+     * @return the scanner object that holds the boundaries of the components
+     * @throws MalformedHttpURLException If the given URL is malformed.
+     */
+    static HttpURLScanner scan(CharSequence source) throws MalformedHttpURLException{
+        int start = 0;
+        int end = source.length();
+
+        //Trim
+        while(start < end && source.charAt(start) <= ' ')
+            start++;
+        while(end > start && source.charAt(end - 1) <= ' ')
+            end--;
+
+        //Protocol
+        if(startsWith(source, start, end, "https://"))
+            start += 8;
+        else if(startsWith(source, start, end, "http://"))
+            start += 7;
+
+        //Authority
+        int authorityEnd = start;
+        int userInfoEnd = -1;
+        for(; authorityEnd < end; authorityEnd++){
+            char c = source.charAt(authorityEnd);
+
+            if(c == '/' || c == '?' || c == '#')
+                break;
+
+            if(c == '@')
+                userInfoEnd = authorityEnd;
+        }
+
+        //Host
+        int hostStart = userInfoEnd >= 0 ? userInfoEnd + 1 : start;
+        int hostEnd;
+        int portStart;
+        IPAddress ipAddress;
+
+        if(hostStart < authorityEnd && source.charAt(hostStart) == '['){
+            hostEnd = indexOf(source, ']', hostStart, authorityEnd);
+            if(hostEnd < 0)
+                throw new MalformedHttpURLException("Invalid host: " + source.subSequence(hostStart, authorityEnd));
+
+            hostEnd++;
+            if(hostEnd < authorityEnd && source.charAt(hostEnd) != ':')
+                throw new MalformedHttpURLException("Invalid host: " + source.subSequence(hostStart, authorityEnd));
+
+            portStart = hostEnd < authorityEnd ? hostEnd + 1 : -1;
+
+            //# Only future address formats ("[v...]") and zone identifiers are not validated
+            ipAddress = IPAddress.parse(source, hostStart, hostEnd);
+            if(ipAddress == null && !isUnvalidatedLiteral(source, hostStart, hostEnd))
+                throw new MalformedHttpURLException("Invalid IPv6 address: " + source.subSequence(hostStart, hostEnd));
+        }
+        else{
+            hostEnd = indexOf(source, ':', hostStart, authorityEnd);
+            portStart = hostEnd >= 0 ? hostEnd + 1 : -1;
+
+            if(hostEnd < 0)
+                hostEnd = authorityEnd;
+
+            ipAddress = IPAddress.parse(source, hostStart, hostEnd);
+        }
+
+        //WWW
+        boolean www = ipAddress == null && hasWWWPrefix(source, hostStart, hostEnd);
+        if(www)
+            hostStart += 4;
+
+        //Port
+        int port = -1;
+        if(portStart >= 0 && portStart < authorityEnd){
+            port = 0;
+
+            for(int i = portStart; i < authorityEnd; i++){
+                char c = source.charAt(i);
+
+                if(c < '0' || c > '9' || port > (Integer.MAX_VALUE - 9) / 10)
+                    throw new MalformedHttpURLException("Invalid port number: " + source.subSequence(portStart, authorityEnd));
+
+                port = port * 10 + (c - '0');
+            }
+        }
+
+        //Path
+        int pathStart = authorityEnd;
+        int pathEnd = pathStart;
+        while(pathEnd < end && source.charAt(pathEnd) != '?' && source.charAt(pathEnd) != '#')
+            pathEnd++;
+
+        //Query
+        int queryStart = -1;
+        int queryEnd = -1;
+        if(pathEnd < end && source.charAt(pathEnd) == '?'){
+            queryStart = pathEnd + 1;
+            queryEnd = indexOf(source, '#', queryStart, end);
+
+            if(queryEnd < 0)
+                queryEnd = end;
+        }
+
+        //Fragment
+        int fragmentStart = -1;
+        int hashIndex = queryEnd >= 0 ? queryEnd : pathEnd;
+        if(hashIndex + 1 < end)
+            fragmentStart = hashIndex + 1;
+
+        return new HttpURLScanner(source, hostStart, hostEnd, www, ipAddress, port, pathStart, pathEnd, queryStart, queryEnd, fragmentStart, end);
+    }
+
+    /**
+     * Returns the host name without the "www." prefix.
+     *
+     * @return the host name
+     */
+    String host(){
+        return slice(hostStart, hostEnd);
+    }
+
+    /**
+     * Returns a boolean value indicating that if the host name starts with "www".
+     *
+     * @return true if the host name starts with "www"
+     */
+    boolean isWWWShown(){
+        return www;
+    }
+
+    /**
+     * Returns the IP address in the host name, or null if the host name is not an IP address.
+     *
+     * @return the IP address
+     */
+    IPAddress ipAddress(){
+        return ipAddress;
+    }
+
+    /**
+     * Returns the port number, or -1 if there is no port number.
+     *
+     * @return the port number
+     */
+    int port(){
+        return port;
+    }
+
+    /**
+     * Adds the segments of the path to the given list. Segments that consist of only whitespace are skipped.
+     *
+     * @param target the list that the segments are added to
+     */
+    void addRouteParameters(List<String> target){
+        int segmentStart = pathStart;
+
+        for(int i = pathStart; i <= pathEnd; i++){
+            if(i == pathEnd || source.charAt(i) == '/'){
+                if(!isBlank(segmentStart, i))
+                    target.add(slice(segmentStart, i));
+
+                segmentStart = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Performs the given action for each field of the query in the order they appear.
+     * Empty fields are skipped and a field without an equals sign gets an empty value.
+     * Only the names and the values are created, no other object is allocated.
+     *
+     * @param action the action to be performed for each field
+     */
+    void forEachQueryField(BiConsumer<? super String, ? super String> action){
+        if(queryStart < 0)
+            return;
+
+        int fieldStart = queryStart;
+
+        for(int i = queryStart; i <= queryEnd; i++){
+            if(i == queryEnd || source.charAt(i) == '&'){
+                if(i > fieldStart){
+                    int equalsIndex = indexOf(source, '=', fieldStart, i);
+
+                    if(equalsIndex < 0)
+                        action.accept(slice(fieldStart, i), "");
+                    else
+                        action.accept(slice(fieldStart, equalsIndex), slice(equalsIndex + 1, i));
+                }
+
+                fieldStart = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the value of the query field whose name is given, or null if there is no such field.
+     * If the name occurs more than once, the value of the last occurrence is returned.
+     * The names are compared in place, so only the returned value is created.
+     *
+     * @param name the name of the field
+     * @return the value of the field
+     */
+    String findQueryField(CharSequence name){
+        if(queryStart < 0)
+            return null;
+
+        int valueStart = -1;
+        int valueEnd = -1;
+        int fieldStart = queryStart;
+
+        for(int i = queryStart; i <= queryEnd; i++){
+            if(i == queryEnd || source.charAt(i) == '&'){
+                if(i > fieldStart){
+                    int equalsIndex = indexOf(source, '=', fieldStart, i);
+                    int nameEnd = equalsIndex < 0 ? i : equalsIndex;
+
+                    if(regionEquals(fieldStart, nameEnd, name)){
+                        valueStart = equalsIndex < 0 ? i : equalsIndex + 1;
+                        valueEnd = i;
+                    }
+                }
+
+                fieldStart = i + 1;
+            }
+        }
+
+        return valueStart >= 0 ? slice(valueStart, valueEnd) : null;
+    }
+
+    /**
+     * Returns the fragment, or null if there is no fragment.
+     *
+     * @return the fragment
+     */
+    String fragment(){
+        return fragmentStart >= 0 ? slice(fragmentStart, end) : null;
+    }
+
+    /**
+     * Returns the characters between the given indexes as a string.
+     *
+     * @param start the index of the first character, inclusive
+     * @param end the index of the last character, exclusive
+     * @return the characters as a string
+     */
+    private String slice(int start, int end){
+        return source.subSequence(start, end).toString();
+    }
+
+    /**
+     * Checks if the characters between the given indexes are equal to the given characters.
+     *
+     * @param start the index of the first character, inclusive
+     * @param end the index of the last character, exclusive
+     * @param value the characters to be compared
+     * @return true if the characters are equal
+     */
+    private boolean regionEquals(int start, int end, CharSequence value){
+        if(source instanceof Utf8Sequence)
+            return ((Utf8Sequence) source).regionEquals(start, end, value);
+
+        if(end - start != value.length())
+            return false;
+
+        for(int i = start; i < end; i++){
+            if(source.charAt(i) != value.charAt(i - start))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if all of the characters between the given indexes are whitespace.
+     *
+     * @param start the index of the first character, inclusive
+     * @param end the index of the last character, exclusive
+     * @return true if there is no character other than whitespace
+     */
+    private boolean isBlank(int start, int end){
+        for(int i = start; i < end; i++){
+            if(source.charAt(i) > ' ')
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if the given bracketed host name is an IP literal in a future format or an IPv6 address with a zone identifier.
+     *
+     * @param host the host name
+     * @param start the index of the opening bracket, inclusive
+     * @param end the index after the closing bracket, exclusive
+     * @return true if the host name is accepted without being parsed
+     */
+    private static boolean isUnvalidatedLiteral(CharSequence host, int start, int end){
+        if(end - start > 2 && (host.charAt(start + 1) == 'v' || host.charAt(start + 1) == 'V'))
+            return true;
+
+        return indexOf(host, '%', start, end) >= 0;
+    }
+
+    /**
+     * Checks if the given host name starts with "www." and consists of at least three labels.
+     *
+     * @param host the host name
+     * @param start the index of the first character of the host name, inclusive
+     * @param end the index of the last character of the host name, exclusive
+     * @return true if the "www." prefix can be separated from the host name
+     */
+    static boolean hasWWWPrefix(CharSequence host, int start, int end){
+        if(!startsWith(host, start, end, "www."))
+            return false;
+
+        //# Trailing empty labels are not counted
+        while(end > start && host.charAt(end - 1) == '.')
+            end--;
+
+        return indexOf(host, '.', start + 4, end) >= 0;
+    }
+
+    /**
+     * Checks if the characters starting from the given index match the given prefix.
+     */
+    private static boolean startsWith(CharSequence source, int start, int end, String prefix){
+        if(end - start < prefix.length())
+            return false;
+
+        for(int i = 0; i < prefix.length(); i++){
+            if(source.charAt(start + i) != prefix.charAt(i))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the given character between the given indexes, or -1.
+     */
+    private static int indexOf(CharSequence source, char c, int start, int end){
+        for(int i = start; i < end; i++){
+            if(source.charAt(i) == c)
+                return i;
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,425 @@
+package com.cemiltokatli.jurl;
+
+import com.cemiltokatli.jurl.exception.URLBuildException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes a large number of Http(s) URLs to a channel, either one URL on each line or as a sitemap.
+ *
+ * Each URL is rendered into a builder that is reused for all of the URLs and encoded with UTF-8 straight into a direct
+ * buffer, which is written to the channel only when it is full. So the memory used
+ * by the writer does not depend on the number of the URLs. When the URLs are written into files, the output can be
+ * split into files that have a limited size or a limited number of URLs.
+ *
+ * An object of this class is not thread-safe.
+ */
+public final class HttpURLWriter implements Closeable {
+    /**
+     * Size of the buffer that collects the bytes before they are written to the channel.
+     */
+    private static final int BUFFER_SIZE = 1 << 17;
+
+    /**
+     * Output formats of the writer.
+     */
+    public enum Format {
+        /**
+         * A URL on each line, separated with "\n".
+         */
+        LINES("", "", "", "\n", 0, 0),
+
+        /**
+         * An XML sitemap as defined by the sitemaps.org protocol. Each file can have at most 50,000 URLs
+         * and it can be at most 50 MB, so the output is split with these limits by default.
+         */
+        SITEMAP("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n",
+                "</urlset>\n", "<url><loc>", "</loc></url>\n", 50 * 1024 * 1024, 50000);
+
+        private final byte[] header;
+        private final byte[] footer;
+        private final String entryStart;
+        private final String entryEnd;
+        private final long maxFileSize;
+        private final long maxURLCount;
+
+        Format(String header, String footer, String entryStart, String entryEnd, long maxFileSize, long maxURLCount){
+            this.header = header.getBytes(StandardCharsets.UTF_8);
+            this.footer = footer.getBytes(StandardCharsets.UTF_8);
+            this.entryStart = entryStart;
+            this.entryEnd = entryEnd;
+            this.maxFileSize = maxFileSize;
+            this.maxURLCount = maxURLCount;
+        }
+    }
+
+    private final Format format;
+    private final WritableByteChannel target;
+    private final Path directory;
+    private final String fileNamePattern;
+    private final ByteBuffer buffer;
+    private final StringBuilder entry;
+    private final StringBuilder url;
+    private final List<Path> files;
+    private boolean encode;
+    private long maxFileSize;
+    private long maxURLCount;
+    private WritableByteChannel channel;
+    private long fileSize;
+    private long fileURLCount;
+    private long urlCount;
+    private boolean closed;
+
+    /**
+     * Creates a new writer that writes the URLs to the given channel. The output is not split.
+     * The channel is closed when the writer is closed.
+     *
+     * @param channel the channel that the URLs are written to
+     * @param format format of the output
+     */
+    public HttpURLWriter(WritableByteChannel channel, Format format){
+        this(channel, null, null, format);
+    }
+
+    /**
+     * Creates a new writer that writes the URLs to the files in the given directory.
+     * The name of each file is created by replacing "%d" in the given pattern with the number of the file,
+     * starting from 1, such as "sitemap-%d.xml". Existing files are overwritten.
+     *
+     * @param directory the directory of the files
+     * @param fileNamePattern pattern of the file names
+     * @param format format of the output
+     */
+    public HttpURLWriter(Path directory, String fileNamePattern, Format format){
+        this(null, directory, fileNamePattern, format);
+
+        if(!fileNamePattern.contains("%d"))
+            throw new IllegalArgumentException("File name pattern must contain \"%d\" for the number of the file");
+    }
+
+    private HttpURLWriter(WritableByteChannel channel, Path directory, String fileNamePattern, Format format){
+        this.format = format;
+        this.target = channel;
+        this.directory = directory;
+        this.fileNamePattern = fileNamePattern;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.entry = new StringBuilder(256);
+        this.url = new StringBuilder(256);
+        this.files = new ArrayList<>();
+        this.encode = true;
+
+        if(directory != null){
+            this.maxFileSize = format.maxFileSize;
+            this.maxURLCount = format.maxURLCount;
+        }
+    }
+
+    /**
+     * Sets whether the URLs are encoded or not. The URLs are encoded by default.
+     *
+     * @param encode true to encode the URLs
+     * @return the HttpURLWriter object
+     */
+    public HttpURLWriter setEncode(boolean encode){
+        this.encode = encode;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of the bytes in a file, including the header and the footer of the format.
+     * A URL that does not fit into an empty file is still written to a file of its own.
+     * Zero means no limit, which is the default for the LINES format.
+     *
+     * @param maxFileSize the maximum size of a file in bytes
+     * @return the HttpURLWriter object
+     * @throws IllegalStateException If the URLs are written to a single channel.
+     */
+    public HttpURLWriter setMaxFileSize(long maxFileSize){
+        checkSplittable();
+        this.maxFileSize = maxFileSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of the URLs in a file. Zero means no limit, which is the default for the LINES format.
+     *
+     * @param maxURLCount the maximum number of the URLs in a file
+     * @return the HttpURLWriter object
+     * @throws IllegalStateException If the URLs are written to a single channel.
+     */
+    public HttpURLWriter setMaxURLCount(long maxURLCount){
+        checkSplittable();
+        this.maxURLCount = maxURLCount;
+        return this;
+    }
+
+    /**
+     * Returns the files that have been created so far, in their order.
+     *
+     * @return the files as an unmodifiable list, an empty list if the URLs are written to a single channel
+     */
+    public List<Path> getFiles(){
+        return Collections.unmodifiableList(files);
+    }
+
+    /**
+     * Returns the number of the URLs that have been written so far.
+     *
+     * @return the number of the URLs
+     */
+    public long getURLCount(){
+        return urlCount;
+    }
+
+    /**
+     * Writes the given URL. If the URL cannot be built, nothing is written.
+     *
+     * @param url the URL to be written
+     * @return the HttpURLWriter object
+     * @throws IOException If the bytes cannot be written to the channel.
+     * @throws URLBuildException If the URL cannot be built.
+     */
+    public HttpURLWriter write(HttpURL url) throws IOException{
+        if(closed)
+            throw new IOException("Writer is closed");
+
+        int length = renderEntry(url);
+
+        //# Start a new file if the current one would exceed the limits
+        if(channel != null && fileURLCount > 0
+                && ((maxURLCount > 0 && fileURLCount >= maxURLCount)
+                || (maxFileSize > 0 && fileSize + length + format.footer.length > maxFileSize))){
+            finishFile();
+        }
+
+        if(channel == null)
+            startFile();
+
+        putEntry(length);
+        fileSize += length;
+        fileURLCount++;
+        urlCount++;
+        release();
+        return this;
+    }
+
+    /**
+     * Writes the given URLs in their order.
+     *
+     * @param urls the URLs to be written
+     * @return the HttpURLWriter object
+     * @throws IOException If the bytes cannot be written to the channel.
+     * @throws URLBuildException If one of the URLs cannot be built, in which case the URLs before it are written.
+     */
+    public HttpURLWriter writeAll(Iterable<? extends HttpURL> urls) throws IOException{
+        for(HttpURL url : urls)
+            write(url);
+
+        return this;
+    }
+
+    /**
+     * Writes the buffered bytes to the channel.
+     *
+     * @throws IOException If the bytes cannot be written to the channel.
+     */
+    public void flush() throws IOException{
+        if(channel != null)
+            drain();
+    }
+
+    /**
+     * Writes the footer of the format and the buffered bytes, then closes the channel.
+     * If no URL has been written, an empty output is still created.
+     *
+     * @throws IOException If the bytes cannot be written to the channel.
+     */
+    @Override
+    public void close() throws IOException{
+        if(closed)
+            return;
+
+        closed = true;
+
+        if(channel == null)
+            startFile();
+
+        finishFile();
+    }
+
+    /**
+     * Renders the given URL with the entry markup into the entry builder.
+     *
+     * @param url the URL to be rendered
+     * @return the number of the bytes that the entry is encoded to with UTF-8
+     */
+    private int renderEntry(HttpURL url){
+        entry.setLength(0);
+        entry.append(format.entryStart);
+
+        int urlStart = entry.length();
+        url.appendTo(entry, encode);
+
+        //# Most of the URLs have no characters to be escaped, so they are moved only when they have
+        if(format == Format.SITEMAP){
+            int special = indexOfSpecial(entry, urlStart);
+
+            if(special >= 0){
+                this.url.setLength(0);
+                this.url.append(entry, special, entry.length());
+                entry.setLength(special);
+                appendEscaped(this.url, entry);
+            }
+        }
+
+        entry.append(format.entryEnd);
+        return Utf8Encoder.length(entry);
+    }
+
+    /**
+     * Returns the index of the first character that is special in XML, starting from the given index, or -1.
+     */
+    private static int indexOfSpecial(CharSequence url, int start){
+        char c;
+        for(int i = start; i < url.length(); i++){
+            c = url.charAt(i);
+
+            if(c == '&' || c == '<' || c == '>' || c == '"' || c == '\'')
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Appends the given URL to the given builder by escaping the characters that are special in XML.
+     */
+    private static void appendEscaped(CharSequence url, StringBuilder out){
+        char c;
+        for(int i = 0; i < url.length(); i++){
+            c = url.charAt(i);
+
+            switch(c){
+                case '&': out.append("&amp;"); break;
+                case '<': out.append("&lt;"); break;
+                case '>': out.append("&gt;"); break;
+                case '"': out.append("&quot;"); break;
+                case '\'': out.append("&apos;"); break;
+                default: out.append(c);
+            }
+        }
+    }
+
+    /**
+     * Opens the next file, or takes the target channel, and writes the header of the format.
+     */
+    private void startFile() throws IOException{
+        if(target != null)
+            channel = target;
+        else{
+            Path file = directory.resolve(String.format(fileNamePattern, files.size() + 1));
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            files.add(file);
+        }
+
+        fileSize = 0;
+        fileURLCount = 0;
+        put(format.header, format.header.length);
+        fileSize += format.header.length;
+    }
+
+    /**
+     * Writes the footer of the format and the buffered bytes, then closes the channel.
+     */
+    private void finishFile() throws IOException{
+        try{
+            put(format.footer, format.footer.length);
+            drain();
+        }
+        finally{
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Encodes the rendered entry into the buffer, writes the buffer to the channel first if there is not enough room.
+     * An entry that does not fit into an empty buffer is encoded into a new array and written to the channel directly.
+     *
+     * @param length the number of the bytes that the entry is encoded to
+     */
+    private void putEntry(int length) throws IOException{
+        if(buffer.remaining() < length)
+            drain();
+
+        if(buffer.remaining() >= length){
+            Utf8Encoder.write(entry, buffer);
+            return;
+        }
+
+        byte[] bytes = new byte[length];
+        put(bytes, Utf8Encoder.write(entry, bytes, 0));
+    }
+
+    /**
+     * Copies the given bytes into the buffer, writes the buffer to the channel first if there is not enough room.
+     * The bytes that do not fit into an empty buffer are written to the channel directly.
+     */
+    private void put(byte[] bytes, int length) throws IOException{
+        if(buffer.remaining() < length)
+            drain();
+
+        if(buffer.remaining() < length){
+            ByteBuffer wrapped = ByteBuffer.wrap(bytes, 0, length);
+            while(wrapped.hasRemaining())
+                channel.write(wrapped);
+        }
+        else
+            buffer.put(bytes, 0, length);
+    }
+
+    /**
+     * Writes the buffered bytes to the channel.
+     */
+    private void drain() throws IOException{
+        buffer.flip();
+
+        while(buffer.hasRemaining())
+            channel.write(buffer);
+
+        buffer.clear();
+    }
+
+    /**
+     * Discards the builders if they have grown too much because of a long URL.
+     */
+    private void release(){
+        if(entry.capacity() > URL.MAX_RETAINED_BUFFER_SIZE){
+            entry.setLength(0);
+            entry.trimToSize();
+        }
+
+        if(url.capacity() > URL.MAX_RETAINED_BUFFER_SIZE){
+            url.setLength(0);
+            url.trimToSize();
+        }
+    }
+
+    /**
+     * Throws an exception if the output cannot be split into files.
+     */
+    private void checkSplittable(){
+        if(directory == null)
+            throw new IllegalStateException("Output cannot be split when the URLs are written to a single channel");
+    }
+}
@@ -0,0 +1,461 @@
+package com.cemiltokatli.jurl;
+
+/**
+ * An immutable IPv4 or IPv6 address that is used as the host name of a URL.
+ *
+ * An IPv4 address is kept as an int and an IPv6 address as two longs, so the addresses can be compared and grouped by
+ * their subnets without any string work. An object of this class can be obtained from a URL whose host name is an
+ * IPv4 address in the dotted-decimal form, such as "192.168.1.10", or an IPv6 address in brackets, such as "[2001:db8::1]".
+ * The addresses are rendered in their canonical forms, and IPv6 addresses follow the RFC 5952 recommendations.
+ */
+public final class IPAddress implements Comparable<IPAddress> {
+    private final boolean ipv6;
+    private final int ipv4Bits;
+    private final long highBits;
+    private final long lowBits;
+
+    /**
+     * Creates a new IPv4 address.
+     *
+     * @param ipv4Bits the address
+     */
+    private IPAddress(int ipv4Bits){
+        this.ipv6 = false;
+        this.ipv4Bits = ipv4Bits;
+        this.highBits = 0;
+        this.lowBits = ipv4Bits & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Creates a new IPv6 address.
+     *
+     * @param highBits the first 64 bits of the address
+     * @param lowBits the last 64 bits of the address
+     */
+    private IPAddress(long highBits, long lowBits){
+        this.ipv6 = true;
+        this.ipv4Bits = 0;
+        this.highBits = highBits;
+        this.lowBits = lowBits;
+    }
+
+    /**
+     * Returns a boolean value indicating that if the address is an IPv4 address.
+     *
+     * @return true for an IPv4 address
+     */
+    public boolean isIPv4(){
+        return !ipv6;
+    }
+
+    /**
+     * Returns a boolean value indicating that if the address is an IPv6 address.
+     *
+     * @return true for an IPv6 address
+     */
+    public boolean isIPv6(){
+        return ipv6;
+    }
+
+    /**
+     * Returns the bits of an IPv4 address, the first octet being the most significant one.
+     *
+     * @return the address as an int
+     * @throws IllegalStateException If the address is an IPv6 address.
+     */
+    public int getIPv4Bits(){
+        if(ipv6)
+            throw new IllegalStateException("Address is not an IPv4 address");
+
+        return ipv4Bits;
+    }
+
+    /**
+     * Returns the first 64 bits of an IPv6 address. It is always zero for an IPv4 address.
+     *
+     * @return the first 64 bits
+     */
+    public long getHighBits(){
+        return highBits;
+    }
+
+    /**
+     * Returns the last 64 bits of an IPv6 address. It holds the 32 bits of the address for an IPv4 address.
+     *
+     * @return the last 64 bits
+     */
+    public long getLowBits(){
+        return lowBits;
+    }
+
+    /**
+     * Returns the address in the network byte order, 4 bytes for an IPv4 address and 16 bytes for an IPv6 address.
+     *
+     * @return the bytes of the address
+     */
+    public byte[] toBytes(){
+        if(!ipv6)
+            return new byte[]{(byte) (ipv4Bits >>> 24), (byte) (ipv4Bits >>> 16), (byte) (ipv4Bits >>> 8), (byte) ipv4Bits};
+
+        byte[] bytes = new byte[16];
+        for(int i = 0; i < 8; i++){
+            bytes[i] = (byte) (highBits >>> (56 - i * 8));
+            bytes[i + 8] = (byte) (lowBits >>> (56 - i * 8));
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Returns the maximum prefix length of the address, 32 for an IPv4 address and 128 for an IPv6 address.
+     *
+     * @return the number of the bits of the address
+     */
+    public int getBitLength(){
+        return ipv6 ? 128 : 32;
+    }
+
+    /**
+     * Returns the network address of the subnet that has the given prefix length and contains this address,
+     * which is the address with all of its bits after the prefix set to zero.
+     *
+     * @param prefixLength number of the bits of the network part
+     * @return the network address
+     * @throws IllegalArgumentException If the prefix length is negative or larger than the bit length of the address.
+     */
+    public IPAddress toSubnet(int prefixLength){
+        checkPrefixLength(prefixLength);
+
+        if(!ipv6)
+            return new IPAddress(ipv4Bits & (int) mask(prefixLength, 32));
+
+        return new IPAddress(highBits & mask(prefixLength, 64), lowBits & mask(prefixLength - 64, 64));
+    }
+
+    /**
+     * Returns a boolean value indicating that if this address is in the subnet of the given address with the given
+     * prefix length. Addresses of different versions are never in the same subnet.
+     *
+     * @param network an address in the subnet
+     * @param prefixLength number of the bits of the network part
+     * @return true if the prefixes of the addresses are the same
+     * @throws IllegalArgumentException If the prefix length is negative or larger than the bit length of the addresses.
+     */
+    public boolean isInSubnet(IPAddress network, int prefixLength){
+        checkPrefixLength(prefixLength);
+
+        if(ipv6 != network.ipv6)
+            return false;
+
+        if(!ipv6)
+            return ((ipv4Bits ^ network.ipv4Bits) & (int) mask(prefixLength, 32)) == 0;
+
+        return ((highBits ^ network.highBits) & mask(prefixLength, 64)) == 0
+                && ((lowBits ^ network.lowBits) & mask(prefixLength - 64, 64)) == 0;
+    }
+
+    /**
+     * Compares the addresses numerically. IPv4 addresses come before IPv6 addresses.
+     *
+     * @param other the address to be compared
+     * @return a negative number, zero or a positive number if this address is less than, equal to or greater than the other
+     */
+    @Override
+    public int compareTo(IPAddress other){
+        if(ipv6 != other.ipv6)
+            return ipv6 ? 1 : -1;
+
+        int result = Long.compareUnsigned(highBits, other.highBits);
+        return result != 0 ? result : Long.compareUnsigned(lowBits, other.lowBits);
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if(this == o)
+            return true;
+
+        if(!(o instanceof IPAddress))
+            return false;
+
+        IPAddress other = (IPAddress) o;
+        return ipv6 == other.ipv6 && highBits == other.highBits && lowBits == other.lowBits;
+    }
+
+    @Override
+    public int hashCode(){
+        return ipv6 ? Long.hashCode(highBits) * 31 + Long.hashCode(lowBits) : ipv4Bits;
+    }
+
+    /**
+     * Returns the canonical form of the address, without brackets for an IPv6 address.
+     *
+     * @return the address as a string
+     */
+    @Override
+    public String toString(){
+        StringBuilder result = new StringBuilder(ipv6 ? 41 : 15);
+        appendTo(result);
+        return result.toString();
+    }
+
+    /**
+     * Returns the address in the form that is used as a host name, in brackets for an IPv6 address.
+     *
+     * @return the address as a host name
+     */
+    String toHostString(){
+        if(!ipv6)
+            return toString();
+
+        StringBuilder result = new StringBuilder(41);
+        appendTo(result.append('['));
+        return result.append(']').toString();
+    }
+
+    /**
+     * Appends the canonical form of the address to the given builder.
+     */
+    private void appendTo(StringBuilder out){
+        if(!ipv6){
+            appendIPv4(ipv4Bits, out);
+            return;
+        }
+
+        int[] groups = new int[8];
+        for(int i = 0; i < 4; i++){
+            groups[i] = (int) (highBits >>> (48 - i * 16)) & 0xFFFF;
+            groups[i + 4] = (int) (lowBits >>> (48 - i * 16)) & 0xFFFF;
+        }
+
+        //# An IPv4-mapped address is written with its IPv4 address in the dotted-decimal form
+        if(highBits == 0 && (lowBits >>> 32) == 0xFFFFL){
+            out.append("::ffff:");
+            appendIPv4((int) lowBits, out);
+            return;
+        }
+
+        //# The longest run of at least two zero groups is compressed, the first one if there are more
+        int runStart = -1;
+        int runLength = 1;
+        for(int i = 0; i < 8; i++){
+            int j = i;
+            while(j < 8 && groups[j] == 0)
+                j++;
+
+            if(j - i > runLength){
+                runStart = i;
+                runLength = j - i;
+            }
+
+            i = j;
+        }
+
+        for(int i = 0; i < 8; i++){
+            if(i == runStart){
+                out.append("::");
+                i += runLength - 1;
+                continue;
+            }
+
+            if(i > 0 && i != runStart + runLength)
+                out.append(':');
+
+            out.append(Integer.toHexString(groups[i]));
+        }
+    }
+
+    /**
+     * Parses the given host name, which is either an IPv4 address or an IPv6 address in brackets.
+     *
+     * @param host the host name
+     * @return the address, or null if the host name is not an IP address
+     */
+    static IPAddress parse(CharSequence host){
+        return parse(host, 0, host.length());
+    }
+
+    /**
+     * Parses the characters between the given indexes, which is either an IPv4 address or an IPv6 address in brackets.
+     * An IPv4 address must have four decimal octets without leading zeros, so its canonical form is the same as itself.
+     *
+     * @param host the host name
+     * @param start the index of the first character, inclusive
+     * @param end the index of the last character, exclusive
+     * @return the address, or null if the characters are not an IP address
+     */
+    static IPAddress parse(CharSequence host, int start, int end){
+        if(end - start > 2 && host.charAt(start) == '[' && host.charAt(end - 1) == ']')
+            return parseIPv6(host, start + 1, end - 1);
+
+        long bits = parseIPv4(host, start, end);
+        return bits >= 0 ? new IPAddress((int) bits) : null;
+    }
+
+    /**
+     * Parses an IPv4 address in the dotted-decimal form.
+     *
+     * @return the address, or -1 if the characters are not an IPv4 address
+     */
+    private static long parseIPv4(CharSequence host, int start, int end){
+        long bits = 0;
+        int octets = 0;
+        int i = start;
+
+        while(octets < 4){
+            int octetStart = i;
+            int octet = 0;
+
+            while(i < end && i - octetStart < 3 && host.charAt(i) >= '0' && host.charAt(i) <= '9'){
+                octet = octet * 10 + (host.charAt(i) - '0');
+                i++;
+            }
+
+            if(i == octetStart || octet > 255 || (host.charAt(octetStart) == '0' && i - octetStart > 1))
+                return -1;
+
+            bits = (bits << 8) | octet;
+            octets++;
+
+            if(octets < 4){
+                if(i == end || host.charAt(i) != '.')
+                    return -1;
+
+                i++;
+            }
+        }
+
+        return i == end ? bits : -1;
+    }
+
+    /**
+     * Parses an IPv6 address without its brackets.
+     *
+     * @return the address, or null if the characters are not an IPv6 address
+     */
+    private static IPAddress parseIPv6(CharSequence host, int start, int end){
+        int[] groups = new int[8];
+        int count = 0;
+        int compressAt = -1;
+        int i = start;
+
+        if(i < end && host.charAt(i) == ':'){
+            if(i + 1 >= end || host.charAt(i + 1) != ':')
+                return null;
+
+            compressAt = 0;
+            i += 2;
+        }
+
+        while(i < end){
+            if(count == 8)
+                return null;
+
+            int groupStart = i;
+            int group = 0;
+            int digit;
+
+            while(i < end && i - groupStart < 4 && (digit = hexDigit(host.charAt(i))) >= 0){
+                group = group * 16 + digit;
+                i++;
+            }
+
+            //# The last 32 bits can be written as an IPv4 address
+            if(i < end && host.charAt(i) == '.'){
+                long bits = parseIPv4(host, groupStart, end);
+
+                if(bits < 0 || count > 6)
+                    return null;
+
+                groups[count++] = (int) (bits >>> 16);
+                groups[count++] = (int) (bits & 0xFFFF);
+                i = end;
+                break;
+            }
+
+            if(i == groupStart)
+                return null;
+
+            groups[count++] = group;
+
+            if(i == end)
+                break;
+
+            if(host.charAt(i) != ':' || ++i == end)
+                return null;
+
+            if(host.charAt(i) == ':'){
+                if(compressAt >= 0)
+                    return null;
+
+                compressAt = count;
+                i++;
+            }
+        }
+
+        if(compressAt < 0 ? count != 8 : count > 7)
+            return null;
+
+        //# Move the groups after the compressed zeros to the end
+        if(compressAt >= 0){
+            int moved = count - compressAt;
+            System.arraycopy(groups, compressAt, groups, 8 - moved, moved);
+
+            for(int j = compressAt; j < 8 - moved; j++)
+                groups[j] = 0;
+        }
+
+        long highBits = 0;
+        long lowBits = 0;
+        for(int j = 0; j < 4; j++){
+            highBits = (highBits << 16) | groups[j];
+            lowBits = (lowBits << 16) | groups[j + 4];
+        }
+
+        return new IPAddress(highBits, lowBits);
+    }
+
+    /**
+     * Returns the value of the given ASCII hexadecimal digit, or -1 if it is not one.
+     */
+    private static int hexDigit(char c){
+        if(c >= '0' && c <= '9')
+            return c - '0';
+
+        if(c >= 'a' && c <= 'f')
+            return c - 'a' + 10;
+
+        if(c >= 'A' && c <= 'F')
+            return c - 'A' + 10;
+
+        return -1;
+    }
+
+    /**
+     * Appends an IPv4 address in the dotted-decimal form to the given builder.
+     */
+    private static void appendIPv4(int bits, StringBuilder out){
+        out.append(bits >>> 24).append('.').append((bits >>> 16) & 0xFF).append('.')
+                .append((bits >>> 8) & 0xFF).append('.').append(bits & 0xFF);
+    }
+
+    /**
+     * Returns a mask whose first bits are set, out of the given number of bits.
+     */
+    private static long mask(int prefixLength, int bitLength){
+        if(prefixLength <= 0)
+            return 0;
+
+        if(prefixLength >= bitLength)
+            return bitLength == 64 ? -1L : (1L << bitLength) - 1;
+
+        return ((1L << prefixLength) - 1) << (bitLength - prefixLength);
+    }
+
+    /**
+     * Throws an exception if the given prefix length is not valid for the address.
+     */
+    private void checkPrefixLength(int prefixLength){
+        if(prefixLength < 0 || prefixLength > getBitLength())
+            throw new IllegalArgumentException("Prefix length must be between 0 and " + getBitLength() + ": " + prefixLength);
+    }
+}
@@ -1,11 +1,20 @@
 package com.cemiltokatli.jurl;
 
+import com.cemiltokatli.jurl.exception.MalformedHttpURLException;
+import com.cemiltokatli.jurl.exception.URLBuildException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
 /**
  * The library is usually controlled via this class.
  * The "build" method of this class is the first step to start building a URL.
  * It returns a new URL object according to the given protocol.
  */
 abstract public class JURL {
+    private static final ThreadLocal<URL[]> REUSABLE_URLS = ThreadLocal.withInitial(() -> new URL[Protocol.COUNT]);
+
     /**
      * Creates and returns a new object that represents the given protocol.
      * The returning object is always an object of a class that is derived from the URL class.
@@ -35,4 +44,182 @@ abstract public class JURL {
             return (T)new MailtoURL(protocol.getProtocol());
         }
     }
+
+    /**
+     * Returns a URL object of the given protocol that is kept for the calling thread, after resetting it.
+     * Each thread has a single object for each protocol, so building URLs one at a time with this method does not
+     * create new objects once the internal collections have grown enough.
+     *
+     * The returned object is reset and returned again by the next call on the same thread with the same protocol,
+     * so it must not be kept after the URL is built or shared with other threads. Use the build method
+     * or the freeze method of the URL for the objects that have to be kept.
+     *
+     * @param protocol the protocol of the URL.
+     * @param <T> type
+     * @return the reset URL object of the thread
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends URL> T reuse(Protocol<T> protocol){
+        URL[] urls = REUSABLE_URLS.get();
+        URL url = urls[protocol.getOrdinal()];
+
+        if(url == null){
+            url = build(protocol);
+            urls[protocol.getOrdinal()] = url;
+            return (T) url;
+        }
+
+        return (T) url.reset();
+    }
+
+    /**
+     * Compiles the given Http(s) URL structure into a template that can be rendered many times with different values
+     * of its placeholders. The structure is parsed in the same way as the HttpURL.setString method parses it.
+     *
+     * @param protocol the protocol of the URLs to be rendered, either Protocol.HTTP or Protocol.HTTPS
+     * @param structure the URL structure with placeholders, such as "domain.com/country/{country}/city/{city}"
+     * @return the compiled template
+     * @throws MalformedHttpURLException If the given structure is malformed.
+     */
+    public static URLTemplate compile(Protocol<HttpURL> protocol, String structure) throws MalformedHttpURLException{
+        return new URLTemplate(protocol.getProtocol(), structure);
+    }
+
+    /**
+     * Renders the given template once for each of the given bindings and returns the URLs in the order of the bindings.
+     * Large batches are split into parts that are rendered in parallel on the common fork-join pool.
+     * Bindings that are not in a random access list are copied into one first, so a stream can also be passed
+     * as "stream::iterator".
+     *
+     * @param template the template to be rendered
+     * @param bindings values of the placeholders by their names, for each URL
+     * @param encode true to encode the URLs.
+     * @return the rendered URLs as an unmodifiable list
+     */
+    public static List<String> buildAll(URLTemplate template, Iterable<? extends Map<String, String>> bindings, boolean encode){
+        return BatchRenderer.renderAll(bindings, values -> template.render(values, encode));
+    }
+
+    /**
+     * Builds a URL of the given protocol for each of the given records and returns the URLs in the order of the records.
+     * Each URL is created empty and passed to the given action together with its record, which sets its components.
+     * Large batches are split into parts that are built in parallel on the common fork-join pool,
+     * so the action is called by multiple threads at the same time.
+     *
+     * @param protocol the protocol of the URLs
+     * @param records the records that the URLs are built from, copied into a list unless they are in a random access one
+     * @param setup the action that sets the components of a URL from its record
+     * @param encode true to encode the URLs.
+     * @param <T> type of the URLs
+     * @param <R> type of the records
+     * @return the built URLs as an unmodifiable list
+     * @throws URLBuildException If one of the URLs cannot be built.
+     */
+    public static <T extends URL, R> List<String> buildAll(Protocol<T> protocol, Iterable<? extends R> records,
+                                                          BiConsumer<? super T, ? super R> setup, boolean encode){
+        return BatchRenderer.renderAll(records, record -> {
+            T url = build(protocol);
+            setup.accept(url, record);
+            return url.toString(encode);
+        });
+    }
+
+    /**
+     * Builds a URL for each of the given records from the given base URL and returns the URLs in the order of the records.
+     * Each URL is a fork of a frozen copy of the base, and it is passed to the given action together with its record,
+     * which changes its components. The base itself is never changed.
+     * Large batches are split into parts that are built in parallel on the common fork-join pool,
+     * so the action is called by multiple threads at the same time.
+     *
+     * @param base the URL that has the shared components
+     * @param records the records that the URLs are built from, copied into a list unless they are in a random access one
+     * @param setup the action that changes the components of a URL for its record
+     * @param encode true to encode the URLs.
+     * @param <R> type of the records
+     * @return the built URLs as an unmodifiable list
+     * @throws URLBuildException If one of the URLs cannot be built.
+     */
+    public static <R> List<String> buildAll(HttpURL base, Iterable<? extends R> records,
+                                            BiConsumer<? super HttpURL, ? super R> setup, boolean encode){
+        //# Forking a frozen URL does not change it and only reads the fields that are set before it is frozen,
+        //# so it can be forked by multiple threads
+        HttpURL frozenBase = base.freeze();
+
+        return BatchRenderer.renderAll(records, record -> {
+            HttpURL url = frozenBase.fork();
+            setup.accept(url, record);
+            return url.toString(encode);
+        });
+    }
+
+    /**
+     * Enables the cache that stores the encoded forms of the values for all of the URL objects.
+     * Once a value is encoded, the next encoding of the same value is served from the cache.
+     * Calling this method again replaces the existing cache with an empty one.
+     *
+     * @param maximumSize maximum number of the encoded values to be kept
+     * @throws IllegalArgumentException If the maximum size is not positive.
+     */
+    public static void enableEncodingCache(int maximumSize){
+        URL.setEncodingCache(new BoundedCache<>(maximumSize));
+    }
+
+    /**
+     * Disables the cache that stores the encoded forms of the values and discards its content.
+     */
+    public static void disableEncodingCache(){
+        URL.setEncodingCache(null);
+    }
+
+    /**
+     * Returns the statistics of the encoding cache.
+     *
+     * @return the statistics, or null if the encoding cache is not enabled.
+     */
+    public static CacheStats getEncodingCacheStats(){
+        BoundedCache<?, ?> cache = URL.getEncodingCache();
+        return cache != null ? cache.getStats() : null;
+    }
+
+    /**
+     * Enables the cache that stores the parsed forms of the URL strings given to the HttpURL.setString method.
+     * When a string that is in the cache is parsed again, its components are taken from the cache.
+     * Each HttpURL object still gets its own components, so it can be modified independently of the others.
+     *
+     * The cache keeps track of how often each string is parsed and prefers to keep the frequently parsed ones
+     * when it is full. Calling this method again replaces the existing cache with an empty one.
+     *
+     * @param maximumSize maximum number of the parsed strings to be kept
+     * @throws IllegalArgumentException If the maximum size is not positive.
+     */
+    public static void enableParseCache(int maximumSize){
+        HttpURL.setParseCache(new BoundedCache<>(maximumSize, true));
+    }
+
+    /**
+     * Disables the cache that stores the parsed forms of the URL strings and discards its content.
+     */
+    public static void disableParseCache(){
+        HttpURL.setParseCache(null);
+    }
+
+    /**
+     * Returns the statistics of the parse cache.
+     *
+     * @return the statistics, or null if the parse cache is not enabled.
+     */
+    public static CacheStats getParseCacheStats(){
+        BoundedCache<?, ?> cache = HttpURL.getParseCache();
+        return cache != null ? cache.getStats() : null;
+    }
+
+    /**
+     * Returns the statistics of the cache that stores the ASCII forms of the internationalized host names.
+     * This cache is always enabled and shared by all of the URL objects.
+     *
+     * @return the statistics
+     */
+    public static CacheStats getIDNCacheStats(){
+        return URL.getIDNCache().getStats();
+    }
 }
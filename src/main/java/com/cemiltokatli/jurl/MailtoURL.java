@@ -2,6 +2,8 @@ package com.cemiltokatli.jurl;
 
 import com.cemiltokatli.jurl.exception.URLBuildException;
 
+import java.util.Objects;
+
 /**
  * Represents a mail-to URL.
  * An object of this class can only be instantiated by the JURL.build method.
@@ -55,6 +57,7 @@ public class MailtoURL extends URL {
      * @return the MailToURL object
      */
     public MailtoURL setEmailAddress(String emailAddress){
+        modified();
         this.emailAddress = emailAddress;
         return this;
     }
@@ -66,6 +69,7 @@ public class MailtoURL extends URL {
      * @return the MailToURL object
      */
     public MailtoURL setSubject(String subject){
+        modified();
         this.subject = subject;
         return this;
     }
@@ -77,19 +81,70 @@ public class MailtoURL extends URL {
      * @return the MailToURL object
      */
     public MailtoURL setContent(String content){
+        modified();
         this.content = content;
         return this;
     }
 
     /**
-     * Builds the URL and returns it as a string.
+     * Returns an immutable copy of the URL. The URL itself is returned if it is already frozen.
+     *
+     * @return the frozen MailtoURL object
+     */
+    @Override
+    public MailtoURL freeze(){
+        if(isFrozen())
+            return this;
+
+        MailtoURL frozen = new MailtoURL(getProtocol());
+        frozen.emailAddress = emailAddress;
+        frozen.subject = subject;
+        frozen.content = content;
+        frozen.markFrozen();
+        return frozen;
+    }
+
+    /**
+     * Clears all of the components of the URL, so the object can be used to build another URL of the same protocol.
+     *
+     * @return the MailtoURL object
+     * @throws UnsupportedOperationException If the URL is frozen.
+     */
+    @Override
+    public MailtoURL reset(){
+        modified();
+        emailAddress = null;
+        subject = null;
+        content = null;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if(this == o)
+            return true;
+
+        if(!(o instanceof MailtoURL))
+            return false;
+
+        MailtoURL other = (MailtoURL) o;
+        return getProtocol().equals(other.getProtocol()) && Objects.equals(emailAddress, other.emailAddress)
+                && Objects.equals(subject, other.subject) && Objects.equals(content, other.content);
+    }
+
+    @Override
+    int hashComponents(){
+        return Objects.hash(getProtocol(), emailAddress, subject, content);
+    }
+
+    /**
+     * Builds the URL and appends it to the given builder.
      * If the encode argument is true, it also encodes the URL.
      *
+     * @param url the builder that the URL is appended to
      * @param encode true to encode the URL.
-     * @return the built URL
      */
-    public String toString(boolean encode){
-        StringBuilder url = new StringBuilder();
+    void build(StringBuilder url, boolean encode){
 
         //Protocol
         url.append(super.getProtocol());
@@ -104,10 +159,12 @@ public class MailtoURL extends URL {
 
         //Subject
         if(subject != null) {
+            String subjectPrepared = subject;
+
             if(encode)
-                subject = encode(subject);
+                subjectPrepared = encode(subjectPrepared);
 
-            url.append("?subject=").append(subject);
+            url.append("?subject=").append(subjectPrepared);
         }
 
         //Content
@@ -117,22 +174,28 @@ public class MailtoURL extends URL {
             else
                 url.append("?");
 
+            String contentPrepared = content;
+
             if(encode)
-                content = encode(content);
+                contentPrepared = encode(contentPrepared);
 
-            url.append("body=").append(content);
+            url.append("body=").append(contentPrepared);
         }
-
-        return url.toString();
     }
 
-    /**
-     * Builds the URL and returns it as a string.
-     *
-     * @return the built URL
-     */
     @Override
-    public String toString(){
-        return toString(false);
+    int length(boolean encode){
+        int length = super.getProtocol().length();
+
+        if(emailAddress != null)
+            length += emailAddress.length();
+
+        if(subject != null)
+            length += 9 + length(subject, false, encode);
+
+        if(content != null)
+            length += 6 + length(content, false, encode);
+
+        return length;
     }
 }
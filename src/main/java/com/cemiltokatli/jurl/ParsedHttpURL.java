@@ -0,0 +1,135 @@
+package com.cemiltokatli.jurl;
+
+import java.util.ArrayList;
+
+/**
+ * Holds the components of a parsed Http(s) URL string, so they can be copied into any number of HttpURL objects
+ * without parsing the string or creating the components again.
+ *
+ * An object of this class is immutable. The arrays returned by its methods are not copied, so they must not be modified.
+ */
+final class ParsedHttpURL {
+    private static final String[] EMPTY = new String[0];
+
+    private final String host;
+    private final String preparedHost;
+    private final IPAddress ipAddress;
+    private final boolean www;
+    private final int port;
+    private final String[] routeParameters;
+    private final String[] queryNames;
+    private final String[] queryValues;
+    private final String fragment;
+
+    /**
+     * Creates the components of the URL whose boundaries are recorded by the given scanner.
+     *
+     * @param scanner the scanner of the URL
+     */
+    ParsedHttpURL(HttpURLScanner scanner){
+        ArrayList<String> routeParameters = new ArrayList<>();
+        ArrayList<String> queryFields = new ArrayList<>();
+
+        scanner.addRouteParameters(routeParameters);
+        scanner.forEachQueryField((name, value) -> {
+            queryFields.add(name);
+            queryFields.add(value);
+        });
+
+        this.host = scanner.host();
+        this.preparedHost = URL.removeProtocol(host, "https:", "http:");
+        this.ipAddress = scanner.ipAddress();
+        this.www = scanner.isWWWShown();
+        this.port = scanner.port();
+        this.routeParameters = routeParameters.toArray(EMPTY);
+        this.queryNames = new String[queryFields.size() / 2];
+        this.queryValues = new String[queryNames.length];
+        this.fragment = scanner.fragment();
+
+        for(int i = 0; i < queryNames.length; i++){
+            queryNames[i] = queryFields.get(i * 2);
+            queryValues[i] = queryFields.get(i * 2 + 1);
+        }
+    }
+
+    /**
+     * Returns the host name without the "www." prefix.
+     *
+     * @return the host name
+     */
+    String host(){
+        return host;
+    }
+
+    /**
+     * Returns the host name without the protocol.
+     *
+     * @return the host name without the protocol
+     */
+    String preparedHost(){
+        return preparedHost;
+    }
+
+    /**
+     * Returns the IP address in the host name, or null if the host name is not an IP address.
+     *
+     * @return the IP address
+     */
+    IPAddress ipAddress(){
+        return ipAddress;
+    }
+
+    /**
+     * Returns a boolean value indicating that if the host name starts with "www".
+     *
+     * @return true if the host name starts with "www"
+     */
+    boolean isWWWShown(){
+        return www;
+    }
+
+    /**
+     * Returns the port number, or -1 if there is no port number.
+     *
+     * @return the port number
+     */
+    int port(){
+        return port;
+    }
+
+    /**
+     * Returns the route parameters.
+     *
+     * @return the route parameters
+     */
+    String[] routeParameters(){
+        return routeParameters;
+    }
+
+    /**
+     * Returns the names of the query fields.
+     *
+     * @return the names of the query fields
+     */
+    String[] queryNames(){
+        return queryNames;
+    }
+
+    /**
+     * Returns the values of the query fields, in the same order with their names.
+     *
+     * @return the values of the query fields
+     */
+    String[] queryValues(){
+        return queryValues;
+    }
+
+    /**
+     * Returns the fragment, or null if there is no fragment.
+     *
+     * @return the fragment
+     */
+    String fragment(){
+        return fragment;
+    }
+}
@@ -0,0 +1,144 @@
+package com.cemiltokatli.jurl;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes percent-encoded UTF-8 strings.
+ *
+ * Each thread uses its own decoder whose byte buffer is reused between the calls, so decoding a value
+ * only allocates the resulting string. Percent signs that are not followed by two hexadecimal digits
+ * are kept as they are instead of causing an error.
+ */
+final class PercentDecoder {
+    /**
+     * Buffers larger than this are not kept for the next call.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<PercentDecoder> DECODERS = ThreadLocal.withInitial(PercentDecoder::new);
+
+    private byte[] buffer;
+
+    /**
+     * Creates a new decoder with an empty buffer.
+     */
+    private PercentDecoder(){
+        this.buffer = new byte[256];
+    }
+
+    /**
+     * Decodes the given value and returns it.
+     * If there is nothing to be decoded, the given value itself is returned.
+     *
+     * @param value the value to be decoded
+     * @param plusAsSpace true to decode "+" signs as spaces, as it is done for query fields
+     * @return the decoded value
+     */
+    static String decode(String value, boolean plusAsSpace){
+        if(value == null || indexOfEncoded(value, 0, value.length(), plusAsSpace) < 0)
+            return value;
+
+        return DECODERS.get().decodeToBuffer(value, 0, value.length(), plusAsSpace);
+    }
+
+    /**
+     * Decodes the characters between the given indexes and returns them as a string.
+     *
+     * @param value the value to be decoded
+     * @param start the index of the first character, inclusive
+     * @param end the index of the last character, exclusive
+     * @param plusAsSpace true to decode "+" signs as spaces
+     * @return the decoded value
+     */
+    static String decode(CharSequence value, int start, int end, boolean plusAsSpace){
+        if(indexOfEncoded(value, start, end, plusAsSpace) < 0)
+            return value.subSequence(start, end).toString();
+
+        return DECODERS.get().decodeToBuffer(value, start, end, plusAsSpace);
+    }
+
+    /**
+     * Returns the index of the first character that must be decoded, or -1 if there is no such character.
+     *
+     * @param value the value to be checked
+     * @param start the index of the first character, inclusive
+     * @param end the index of the last character, exclusive
+     * @param plusAsSpace true if the "+" signs must be decoded
+     * @return the index of the first encoded character
+     */
+    private static int indexOfEncoded(CharSequence value, int start, int end, boolean plusAsSpace){
+        for(int i = start; i < end; i++){
+            char c = value.charAt(i);
+            if(c == '%' || (plusAsSpace && c == '+'))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Writes the decoded bytes of the given characters to the buffer and converts them to a string.
+     *
+     * @param value the value to be decoded
+     * @param start the index of the first character, inclusive
+     * @param end the index of the last character, exclusive
+     * @param plusAsSpace true to decode "+" signs as spaces
+     * @return the decoded value
+     */
+    private String decodeToBuffer(CharSequence value, int start, int end, boolean plusAsSpace){
+        //# A character takes at most three bytes in UTF-8, a surrogate pair takes four bytes for two characters
+        byte[] bytes = buffer;
+        if(bytes.length < (end - start) * 3)
+            bytes = new byte[(end - start) * 3];
+
+        int length = 0;
+        for(int i = start; i < end; i++){
+            char c = value.charAt(i);
+
+            if(c == '%' && i + 2 < end && isHexDigit(value.charAt(i + 1)) && isHexDigit(value.charAt(i + 2))){
+                bytes[length++] = (byte) ((Character.digit(value.charAt(i + 1), 16) << 4) | Character.digit(value.charAt(i + 2), 16));
+                i += 2;
+            }
+            else if(c == '+' && plusAsSpace){
+                bytes[length++] = ' ';
+            }
+            else if(c < 0x80){
+                bytes[length++] = (byte) c;
+            }
+            else if(c < 0x800){
+                bytes[length++] = (byte) (0xC0 | (c >> 6));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+            else if(Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))){
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            }
+            else if(Character.isSurrogate(c)){
+                bytes[length++] = '?';
+            }
+            else{
+                bytes[length++] = (byte) (0xE0 | (c >> 12));
+                bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        if(bytes != buffer && bytes.length <= MAX_RETAINED_BUFFER_SIZE)
+            buffer = bytes;
+
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks if the given character is a hexadecimal digit.
+     *
+     * @param c the character to be checked
+     * @return true if the character is a hexadecimal digit
+     */
+    private static boolean isHexDigit(char c){
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
@@ -0,0 +1,186 @@
+package com.cemiltokatli.jurl;
+
+/**
+ * Percent-encodes strings with UTF-8 in a single pass.
+ *
+ * The output is identical to the output of java.net.URLEncoder with the "+" signs replaced by "%20".
+ * In the Http mode, the characters "~", "!", "(", ")" and "'" are also left as they are, which makes the
+ * result exactly the same with the javascript's encodeURIComponent function.
+ */
+final class PercentEncoder {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final boolean[] SAFE_CHARS = new boolean[128];
+    private static final boolean[] SAFE_HTTP_CHARS = new boolean[128];
+
+    static {
+        for(char c = 'a'; c <= 'z'; c++){
+            SAFE_CHARS[c] = true;
+        }
+        for(char c = 'A'; c <= 'Z'; c++){
+            SAFE_CHARS[c] = true;
+        }
+        for(char c = '0'; c <= '9'; c++){
+            SAFE_CHARS[c] = true;
+        }
+        for(char c : new char[]{'-', '_', '.', '*'}){
+            SAFE_CHARS[c] = true;
+        }
+
+        System.arraycopy(SAFE_CHARS, 0, SAFE_HTTP_CHARS, 0, SAFE_CHARS.length);
+        for(char c : new char[]{'~', '!', '(', ')', '\''}){
+            SAFE_HTTP_CHARS[c] = true;
+        }
+    }
+
+    private PercentEncoder(){
+    }
+
+    /**
+     * Encodes the given value and returns it.
+     * If none of the characters needs to be escaped, the given instance itself is returned.
+     *
+     * @param value the value to be encoded
+     * @param forHttp true for Http encoding
+     * @return the encoded value
+     */
+    static String encode(String value, boolean forHttp){
+        int firstUnsafe = indexOfUnsafe(value, forHttp);
+
+        if(firstUnsafe < 0)
+            return value;
+
+        StringBuilder encoded = new StringBuilder(firstUnsafe + encodedLength(value, firstUnsafe, value.length(), forHttp));
+        encoded.append(value, 0, firstUnsafe);
+        appendEncoded(value, firstUnsafe, value.length(), forHttp, encoded);
+
+        return encoded.toString();
+    }
+
+    /**
+     * Encodes the given value and appends the result to the given builder.
+     *
+     * @param value the value to be encoded
+     * @param forHttp true for Http encoding
+     * @param out the builder that the encoded value is appended to
+     */
+    static void appendEncoded(CharSequence value, boolean forHttp, StringBuilder out){
+        appendEncoded(value, 0, value.length(), forHttp, out);
+    }
+
+    /**
+     * Returns the length of the encoded form of the given value without encoding it.
+     *
+     * @param value the value to be measured
+     * @param forHttp true for Http encoding
+     * @return the length of the encoded value
+     */
+    static int encodedLength(CharSequence value, boolean forHttp){
+        return encodedLength(value, 0, value.length(), forHttp);
+    }
+
+    /**
+     * Returns the index of the first character that must be escaped, or -1 if there is no such character.
+     *
+     * @param value the value to be checked
+     * @param forHttp true for Http encoding
+     * @return the index of the first unsafe character
+     */
+    static int indexOfUnsafe(CharSequence value, boolean forHttp){
+        boolean[] safeChars = forHttp ? SAFE_HTTP_CHARS : SAFE_CHARS;
+
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if(c >= 128 || !safeChars[c])
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Encodes the characters between the given indexes and appends the result to the given builder.
+     *
+     * @param value the value to be encoded
+     * @param start the index of the first character, inclusive
+     * @param end the index of the last character, exclusive
+     * @param forHttp true for Http encoding
+     * @param out the builder that the encoded value is appended to
+     */
+    private static void appendEncoded(CharSequence value, int start, int end, boolean forHttp, StringBuilder out){
+        boolean[] safeChars = forHttp ? SAFE_HTTP_CHARS : SAFE_CHARS;
+
+        for(int i = start; i < end; i++){
+            char c = value.charAt(i);
+
+            if(c < 128){
+                if(safeChars[c])
+                    out.append(c);
+                else
+                    appendEscaped(c, out);
+            }
+            else if(c < 0x800){
+                appendEscaped(0xC0 | (c >> 6), out);
+                appendEscaped(0x80 | (c & 0x3F), out);
+            }
+            else if(Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))){
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                appendEscaped(0xF0 | (codePoint >> 18), out);
+                appendEscaped(0x80 | ((codePoint >> 12) & 0x3F), out);
+                appendEscaped(0x80 | ((codePoint >> 6) & 0x3F), out);
+                appendEscaped(0x80 | (codePoint & 0x3F), out);
+            }
+            else if(Character.isSurrogate(c)){
+                //# An unpaired surrogate cannot be encoded, URLEncoder replaces it with a question mark
+                appendEscaped('?', out);
+            }
+            else{
+                appendEscaped(0xE0 | (c >> 12), out);
+                appendEscaped(0x80 | ((c >> 6) & 0x3F), out);
+                appendEscaped(0x80 | (c & 0x3F), out);
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the encoded form of the characters between the given indexes.
+     *
+     * @param value the value to be measured
+     * @param start the index of the first character, inclusive
+     * @param end the index of the last character, exclusive
+     * @param forHttp true for Http encoding
+     * @return the length of the encoded characters
+     */
+    private static int encodedLength(CharSequence value, int start, int end, boolean forHttp){
+        boolean[] safeChars = forHttp ? SAFE_HTTP_CHARS : SAFE_CHARS;
+        int length = 0;
+
+        for(int i = start; i < end; i++){
+            char c = value.charAt(i);
+
+            if(c < 128)
+                length += safeChars[c] ? 1 : 3;
+            else if(c < 0x800)
+                length += 6;
+            else if(Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))){
+                length += 12;
+                i++;
+            }
+            else if(Character.isSurrogate(c))
+                length += 3;
+            else
+                length += 9;
+        }
+
+        return length;
+    }
+
+    /**
+     * Appends the given byte as a percent-encoded triplet.
+     *
+     * @param b the byte to be appended
+     * @param out the builder that the triplet is appended to
+     */
+    private static void appendEscaped(int b, StringBuilder out){
+        out.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+    }
+}
@@ -11,52 +11,60 @@ public class Protocol<T> {
     /**
      * Used for creating a URL with "http" scheme.
      */
-    public static final Protocol<HttpURL> HTTP = new Protocol<>(HttpURL.class, "http://");
+    public static final Protocol<HttpURL> HTTP = new Protocol<>(HttpURL.class, "http://", 0);
     /**
      * Used for creating a URL with "https" scheme.
      */
-    public static final Protocol<HttpURL> HTTPS = new Protocol<>(HttpURL.class, "https://");
+    public static final Protocol<HttpURL> HTTPS = new Protocol<>(HttpURL.class, "https://", 1);
     /**
      * Used for creating a URL with "file" scheme.
      */
-    public static final Protocol<FileURL> FILE = new Protocol<>(FileURL.class, "file://");
+    public static final Protocol<FileURL> FILE = new Protocol<>(FileURL.class, "file://", 2);
     /**
      * Used for creating a URL with "ftp" scheme.
      */
-    public static final Protocol<FileURL> FTP = new Protocol<>(FileURL.class, "ftp://");
+    public static final Protocol<FileURL> FTP = new Protocol<>(FileURL.class, "ftp://", 3);
     /**
      * Used for creating a URL with "ftps" scheme.
      */
-    public static final Protocol<FileURL> FTPS = new Protocol<>(FileURL.class, "ftps://");
+    public static final Protocol<FileURL> FTPS = new Protocol<>(FileURL.class, "ftps://", 4);
     /**
      * Used for creating a URL with "sftp" scheme.
      */
-    public static final Protocol<FileURL> SFTP = new Protocol<>(FileURL.class, "sftp://");
+    public static final Protocol<FileURL> SFTP = new Protocol<>(FileURL.class, "sftp://", 5);
     /**
      * Used for creating a URL with "data" scheme.
      */
-    public static final Protocol<DataURL> DATA = new Protocol<>(DataURL.class, "data:");
+    public static final Protocol<DataURL> DATA = new Protocol<>(DataURL.class, "data:", 6);
     /**
      * Used for creating a URL with "telnet" scheme.
      */
-    public static final Protocol<TelnetURL> TELNET = new Protocol<>(TelnetURL.class, "telnet://");
+    public static final Protocol<TelnetURL> TELNET = new Protocol<>(TelnetURL.class, "telnet://", 7);
     /**
      * Used for creating a URL with "mailto" scheme.
      */
-    public static final Protocol<MailtoURL> MAILTO = new Protocol<>(MailtoURL.class, "mailto:");
+    public static final Protocol<MailtoURL> MAILTO = new Protocol<>(MailtoURL.class, "mailto:", 8);
+
+    /**
+     * Number of the protocols.
+     */
+    static final int COUNT = 9;
 
     private Class<T> type;
     private String protocol;
+    private int ordinal;
 
     /**
      * Creates a new protocol object with the given type and protocol.
      *
      * @param type the class type
      * @param protocol the protocol
+     * @param ordinal position of the protocol among all of the protocols
      */
-    Protocol(Class<T> type, String protocol){
+    Protocol(Class<T> type, String protocol, int ordinal){
         this.type = type;
         this.protocol = protocol;
+        this.ordinal = ordinal;
     }
 
     /**
@@ -76,4 +84,13 @@ public class Protocol<T> {
     Class<T> getType(){
         return type;
     }
+
+    /**
+     * Returns the position of the protocol among all of the protocols, starting from zero.
+     *
+     * @return the ordinal
+     */
+    int getOrdinal(){
+        return ordinal;
+    }
 }
@@ -0,0 +1,467 @@
+package com.cemiltokatli.jurl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Holds the query fields of a Http(s) URL in the order they are added.
+ *
+ * A name can occur more than once, so a query like "?tag=a&amp;tag=b" is kept as it is. The names and the values
+ * are stored in parallel arrays instead of map entries, so a field can also be accessed by its position.
+ * An object of this class can only be obtained from a HttpURL object, and the changes made on it are reflected
+ * to the URL.
+ */
+public final class QueryParams {
+    private static final String[] EMPTY = new String[0];
+
+    private String[] names;
+    private String[] values;
+    private String[] encodedFields;
+    private int size;
+    private boolean frozen;
+
+    /**
+     * Creates a new empty QueryParams object.
+     */
+    QueryParams(){
+        this.names = EMPTY;
+        this.values = EMPTY;
+        this.encodedFields = EMPTY;
+    }
+
+    /**
+     * Returns a copy of this object. Changes made on the copy are not reflected to this object.
+     *
+     * @return the copy
+     */
+    QueryParams copy(){
+        QueryParams copy = new QueryParams();
+        copy.names = Arrays.copyOf(names, size);
+        copy.values = Arrays.copyOf(values, size);
+        copy.encodedFields = Arrays.copyOf(encodedFields, size);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Makes this object unmodifiable.
+     *
+     * @return the QueryParams object
+     */
+    QueryParams freeze(){
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Returns the number of the fields.
+     *
+     * @return the number of the fields
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Returns a boolean value indicating that if there is no field.
+     *
+     * @return true if there is no field
+     */
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * Returns the name of the field at the given position.
+     *
+     * @param index position of the field
+     * @return the name of the field
+     * @throws IndexOutOfBoundsException If there is no field at the given position.
+     */
+    public String getName(int index){
+        checkIndex(index);
+        return names[index];
+    }
+
+    /**
+     * Returns the value of the field at the given position.
+     *
+     * @param index position of the field
+     * @return the value of the field
+     * @throws IndexOutOfBoundsException If there is no field at the given position.
+     */
+    public String getValue(int index){
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * Returns the value of the field whose name is given, or null if there is no such field.
+     * If the name occurs more than once, the value of the last occurrence is returned.
+     * The name is compared character by character, so it does not have to be a string.
+     *
+     * @param name the name of the field
+     * @return the value of the field
+     */
+    public String get(CharSequence name){
+        int index = lastIndexOf(name);
+        return index >= 0 ? values[index] : null;
+    }
+
+    /**
+     * Returns the values of all of the fields whose name is given, in the order they are added.
+     *
+     * @param name the name of the fields
+     * @return the values of the fields, an empty list if there is no such field
+     */
+    public List<String> getAll(CharSequence name){
+        List<String> result = new ArrayList<>(2);
+
+        for(int i = 0; i < size; i++){
+            if(names[i].contentEquals(name))
+                result.add(values[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the position of the first field whose name is given, or -1 if there is no such field.
+     *
+     * @param name the name of the field
+     * @return the position of the field
+     */
+    public int indexOf(CharSequence name){
+        for(int i = 0; i < size; i++){
+            if(names[i].contentEquals(name))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the position of the last field whose name is given, or -1 if there is no such field.
+     *
+     * @param name the name of the field
+     * @return the position of the field
+     */
+    public int lastIndexOf(CharSequence name){
+        for(int i = size - 1; i >= 0; i--){
+            if(names[i].contentEquals(name))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns a boolean value indicating that if there is a field whose name is given.
+     *
+     * @param name the name of the field
+     * @return true if there is such a field
+     */
+    public boolean contains(CharSequence name){
+        return indexOf(name) >= 0;
+    }
+
+    /**
+     * Adds a new field to the end, even if there is already a field with the same name.
+     *
+     * @param name the name of the field
+     * @param value the value of the field
+     * @return the QueryParams object
+     */
+    public QueryParams add(String name, String value){
+        checkNotFrozen();
+
+        if(size == names.length){
+            int capacity = Math.max(4, size * 2);
+            names = Arrays.copyOf(names, capacity);
+            values = Arrays.copyOf(values, capacity);
+            encodedFields = Arrays.copyOf(encodedFields, capacity);
+        }
+
+        names[size] = name;
+        values[size] = value;
+        encodedFields[size] = null;
+        size++;
+        return this;
+    }
+
+    /**
+     * Sets the value of the field whose name is given.
+     * If the name occurs more than once, the first occurrence keeps its position and the others are removed.
+     * If there is no such field, a new one is added to the end.
+     *
+     * @param name the name of the field
+     * @param value the value of the field
+     * @return the QueryParams object
+     */
+    public QueryParams set(String name, String value){
+        checkNotFrozen();
+        int index = indexOf(name);
+
+        if(index < 0)
+            return add(name, value);
+
+        values[index] = value;
+        encodedFields[index] = null;
+        int newSize = index + 1;
+
+        //# Compact the fields after the first occurrence in a single pass
+        for(int i = index + 1; i < size; i++){
+            if(!names[i].contentEquals(name)){
+                names[newSize] = names[i];
+                values[newSize] = values[i];
+                encodedFields[newSize] = encodedFields[i];
+                newSize++;
+            }
+        }
+
+        Arrays.fill(names, newSize, size, null);
+        Arrays.fill(values, newSize, size, null);
+        Arrays.fill(encodedFields, newSize, size, null);
+        size = newSize;
+        return this;
+    }
+
+    /**
+     * Sets the value of the field at the given position.
+     *
+     * @param index position of the field
+     * @param value the new value of the field
+     * @return the QueryParams object
+     * @throws IndexOutOfBoundsException If there is no field at the given position.
+     */
+    public QueryParams setValue(int index, String value){
+        checkNotFrozen();
+        checkIndex(index);
+        values[index] = value;
+        encodedFields[index] = null;
+        return this;
+    }
+
+    /**
+     * Removes the field at the given position. The fields after it are shifted to the left.
+     *
+     * @param index position of the field
+     * @return the QueryParams object
+     * @throws IndexOutOfBoundsException If there is no field at the given position.
+     */
+    public QueryParams remove(int index){
+        checkNotFrozen();
+        checkIndex(index);
+
+        int moved = size - index - 1;
+        if(moved > 0){
+            System.arraycopy(names, index + 1, names, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+            System.arraycopy(encodedFields, index + 1, encodedFields, index, moved);
+        }
+
+        size--;
+        names[size] = null;
+        values[size] = null;
+        encodedFields[size] = null;
+        return this;
+    }
+
+    /**
+     * Removes all of the fields whose name is given.
+     *
+     * @param name the name of the fields
+     * @return the QueryParams object
+     */
+    public QueryParams removeAll(CharSequence name){
+        checkNotFrozen();
+        int newSize = 0;
+
+        //# Compact the remaining fields in a single pass
+        for(int i = 0; i < size; i++){
+            if(!names[i].contentEquals(name)){
+                names[newSize] = names[i];
+                values[newSize] = values[i];
+                encodedFields[newSize] = encodedFields[i];
+                newSize++;
+            }
+        }
+
+        Arrays.fill(names, newSize, size, null);
+        Arrays.fill(values, newSize, size, null);
+        Arrays.fill(encodedFields, newSize, size, null);
+        size = newSize;
+        return this;
+    }
+
+    /**
+     * Adds the given fields to the end.
+     *
+     * @param names the names of the fields
+     * @param values the values of the fields, in the same order with their names
+     * @return the QueryParams object
+     */
+    QueryParams addAll(String[] names, String[] values){
+        checkNotFrozen();
+
+        int count = names.length;
+        if(size + count > this.names.length){
+            int capacity = Math.max(size + count, size * 2);
+            this.names = Arrays.copyOf(this.names, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.encodedFields = Arrays.copyOf(this.encodedFields, capacity);
+        }
+
+        System.arraycopy(names, 0, this.names, size, count);
+        System.arraycopy(values, 0, this.values, size, count);
+        Arrays.fill(encodedFields, size, size + count, null);
+        size += count;
+        return this;
+    }
+
+    /**
+     * Removes all of the fields.
+     *
+     * @return the QueryParams object
+     */
+    public QueryParams clear(){
+        checkNotFrozen();
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        Arrays.fill(encodedFields, 0, size, null);
+        size = 0;
+        return this;
+    }
+
+    /**
+     * Performs the given action for each field with its name and value, in the order of the fields.
+     *
+     * @param action the action to be performed for each field
+     */
+    public void forEach(BiConsumer<? super String, ? super String> action){
+        for(int i = 0; i < size; i++){
+            action.accept(names[i], values[i]);
+        }
+    }
+
+    /**
+     * Returns the fields as a map. If a name occurs more than once, the map holds the value of its last occurrence
+     * at the position of its first occurrence. The returned map is a copy, changes made on it are not reflected.
+     *
+     * @return the fields as a map
+     */
+    public LinkedHashMap<String, String> toMap(){
+        LinkedHashMap<String, String> map = new LinkedHashMap<>();
+
+        for(int i = 0; i < size; i++){
+            map.put(names[i], values[i]);
+        }
+
+        return map;
+    }
+
+    /**
+     * Compares the names and the values of the fields with the given object, in their order.
+     *
+     * @param o the object to be compared
+     * @return true if the given object has the same fields in the same order
+     */
+    @Override
+    public boolean equals(Object o){
+        if(this == o)
+            return true;
+
+        if(!(o instanceof QueryParams))
+            return false;
+
+        QueryParams other = (QueryParams) o;
+        if(size != other.size)
+            return false;
+
+        for(int i = 0; i < size; i++){
+            if(!Objects.equals(names[i], other.names[i]) || !Objects.equals(values[i], other.values[i]))
+                return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode(){
+        int hash = 1;
+
+        for(int i = 0; i < size; i++){
+            hash = 31 * hash + Objects.hashCode(names[i]);
+            hash = 31 * hash + Objects.hashCode(values[i]);
+        }
+
+        return hash;
+    }
+
+    /**
+     * Returns the fields in the "name=value&amp;name=value" form without encoding them.
+     *
+     * @return the fields as a string
+     */
+    @Override
+    public String toString(){
+        StringBuilder result = new StringBuilder();
+
+        for(int i = 0; i < size; i++){
+            if(i > 0)
+                result.append("&");
+
+            result.append(names[i]).append("=").append(values[i]);
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Returns the stored encoded form of the field at the given position, or null if it has not been stored
+     * or the field has been changed since then.
+     *
+     * @param index position of the field
+     * @return the encoded field in the "name=value" form
+     */
+    String getEncodedField(int index){
+        return encodedFields[index];
+    }
+
+    /**
+     * Stores the encoded form of the field at the given position.
+     *
+     * @param index position of the field
+     * @param encodedField the encoded field in the "name=value" form
+     */
+    void setEncodedField(int index, String encodedField){
+        encodedFields[index] = encodedField;
+    }
+
+    /**
+     * Discards all of the stored encoded forms.
+     */
+    void clearEncodedFields(){
+        Arrays.fill(encodedFields, 0, size, null);
+    }
+
+    /**
+     * Throws an exception if this object is unmodifiable.
+     */
+    private void checkNotFrozen(){
+        if(frozen)
+            throw new UnsupportedOperationException("Query fields of a frozen URL cannot be modified");
+    }
+
+    /**
+     * Throws an exception if there is no field at the given position.
+     */
+    private void checkIndex(int index){
+        if(index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+}
@@ -2,6 +2,8 @@ package com.cemiltokatli.jurl;
 
 import com.cemiltokatli.jurl.exception.URLBuildException;
 
+import java.util.Objects;
+
 /**
  * Represents a telnet URL.
  * An object of this class can only be instantiated by the JURL.build method.
@@ -10,6 +12,8 @@ public class TelnetURL extends URL {
     private String username;
     private String password;
     private String host;
+    private String preparedHost;
+    private IPAddress ipAddress;
     private int port;
 
     /**
@@ -49,6 +53,16 @@ public class TelnetURL extends URL {
         return host;
     }
 
+    /**
+     * Returns the IP address if the host name is an IPv4 address or an IPv6 address in brackets.
+     * The URL is built with the canonical form of the address.
+     *
+     * @return the IP address of the URL, or null if the host name is not an IP address.
+     */
+    public IPAddress getIPAddress(){
+        return ipAddress;
+    }
+
     /**
      * Returns the port number.
      *
@@ -65,6 +79,7 @@ public class TelnetURL extends URL {
      * @return the TelnetURL object
      */
     public TelnetURL setUsername(String username){
+        modified();
         this.username = username;
         return this;
     }
@@ -76,6 +91,7 @@ public class TelnetURL extends URL {
      * @return the TelnetURL object
      */
     public TelnetURL setPassword(String password){
+        modified();
         this.password = password;
         return this;
     }
@@ -87,8 +103,14 @@ public class TelnetURL extends URL {
      * @return the TelnetURL object
      */
     public TelnetURL setHost(String host){
+        modified();
         if(host != null){
-            this.host = host.replaceAll("/","");
+            this.host = removeSlashes(host);
+            this.preparedHost = removeProtocol(this.host, "telnet:");
+            this.ipAddress = IPAddress.parse(preparedHost);
+
+            if(ipAddress != null)
+                this.preparedHost = ipAddress.toHostString();
         }
         return this;
     }
@@ -100,19 +122,84 @@ public class TelnetURL extends URL {
      * @return the TelnetURL object
      */
     public TelnetURL setPort(int port){
+        modified();
         this.port = port;
         return this;
     }
 
     /**
-     * Builds the URL and returns it as a string.
+     * Returns an immutable copy of the URL. The URL itself is returned if it is already frozen.
+     *
+     * @return the frozen TelnetURL object
+     */
+    @Override
+    public TelnetURL freeze(){
+        if(isFrozen())
+            return this;
+
+        TelnetURL frozen = new TelnetURL(getProtocol());
+        frozen.username = username;
+        frozen.password = password;
+        frozen.host = host;
+        frozen.preparedHost = preparedHost;
+        frozen.ipAddress = ipAddress;
+        frozen.port = port;
+        frozen.markFrozen();
+        return frozen;
+    }
+
+    /**
+     * Clears all of the components of the URL, so the object can be used to build another URL of the same protocol.
+     *
+     * @return the TelnetURL object
+     * @throws UnsupportedOperationException If the URL is frozen.
+     */
+    @Override
+    public TelnetURL reset(){
+        modified();
+        username = null;
+        password = null;
+        host = null;
+        preparedHost = null;
+        ipAddress = null;
+        port = -1;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if(this == o)
+            return true;
+
+        if(!(o instanceof TelnetURL))
+            return false;
+
+        TelnetURL other = (TelnetURL) o;
+        return getProtocol().equals(other.getProtocol()) && port == other.port && Objects.equals(username, other.username)
+                && Objects.equals(password, other.password) && Objects.equals(hostKey(), other.hostKey());
+    }
+
+    @Override
+    int hashComponents(){
+        return Objects.hash(getProtocol(), username, password, hostKey(), port);
+    }
+
+    /**
+     * Returns the IP address if the host name is an IP address, so different forms of the same address are equal,
+     * or the host name otherwise.
+     */
+    private Object hostKey(){
+        return ipAddress != null ? ipAddress : host;
+    }
+
+    /**
+     * Builds the URL and appends it to the given builder.
      * If the encode argument is true, it also encodes the URL.
      *
+     * @param url the builder that the URL is appended to
      * @param encode true to encode the URL.
-     * @return the built URL
      */
-    public String toString(boolean encode) {
-        StringBuilder url = new StringBuilder();
+    void build(StringBuilder url, boolean encode) {
 
         //Protocol
         url.append(super.getProtocol());
@@ -145,28 +232,36 @@ public class TelnetURL extends URL {
         }
 
         //Host
-        String hostPrepared = host.replaceFirst("^telnet://|telnet:","");
-
         if(username != null){
             url.append("@");
         }
-        url.append(hostPrepared);
+        url.append(preparedHost);
 
         //Port
         if(port > -1){
             url.append(":").append(port);
         }
-
-        return url.toString();
     }
 
-    /**
-     * Builds the URL and returns it as a string.
-     *
-     * @return the built URL
-     */
     @Override
-    public String toString(){
-        return toString(false);
+    int length(boolean encode){
+        //Protocol
+        int length = super.getProtocol().length();
+
+        //Username and Password
+        if(username != null)
+            length += length(username, false, encode) + 1;
+
+        if(password != null)
+            length += length(password, false, encode) + (username != null ? 1 : 0);
+
+        //Host and Port
+        if(host != null)
+            length += preparedHost.length();
+
+        if(port > -1)
+            length += 1 + digitCount(port);
+
+        return length;
     }
 }
@@ -1,15 +1,43 @@
 package com.cemiltokatli.jurl;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
-import java.util.List;
-import java.util.Map;
+import com.cemiltokatli.jurl.exception.URLBuildException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.VarHandle;
+import java.net.IDN;
+import java.nio.CharBuffer;
 
 /**
  * Ancestor of the all classes that represent a URL.
  */
 abstract class URL {
+    /**
+     * Values longer than this are never put in the encoding cache.
+     */
+    private static final int MAX_CACHED_VALUE_LENGTH = 256;
+
+    /**
+     * Maximum number of the internationalized host names whose ASCII forms are kept.
+     */
+    private static final int IDN_CACHE_SIZE = 1024;
+
+    /**
+     * Render buffers larger than this are not kept for the next call.
+     */
+    static final int MAX_RETAINED_BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<RenderBuffer> RENDER_BUFFERS = ThreadLocal.withInitial(RenderBuffer::new);
+
+    private static volatile BoundedCache<EncodingKey, String> encodingCache;
+    private static final BoundedCache<String, String> idnCache = new BoundedCache<>(IDN_CACHE_SIZE);
+
     private String protocol;
+    private boolean frozen;
+    private boolean stringCacheDisabled;
+    private String string;
+    private String encodedString;
+    private int hash;
 
     /**
      * Creates a new URL object with the given protocol.
@@ -29,6 +57,392 @@ abstract class URL {
         return protocol;
     }
 
+    /**
+     * Returns a boolean value indicating that if the URL is frozen.
+     * A frozen URL cannot be modified, so it can be shared by multiple threads and used as a key in a hash table.
+     *
+     * @return true if the URL is frozen
+     */
+    public boolean isFrozen(){
+        return frozen;
+    }
+
+    /**
+     * Returns an immutable copy of the URL. The URL itself is returned if it is already frozen.
+     * Calling a method that modifies a frozen URL throws an UnsupportedOperationException.
+     * The string forms and the hash code of a frozen URL are computed once and then reused.
+     *
+     * @return the frozen URL
+     */
+    public abstract URL freeze();
+
+    /**
+     * Clears all of the components of the URL, so the object can be used to build another URL of the same protocol.
+     * The internal collections are emptied instead of being replaced, so their capacities are kept.
+     *
+     * @return the URL object
+     * @throws UnsupportedOperationException If the URL is frozen.
+     */
+    public abstract URL reset();
+
+    /**
+     * Builds the URL and returns it as a string.
+     * If the encode argument is true, it also encodes the URL.
+     * The built string is kept for each form and returned again until the URL is modified.
+     *
+     * @param encode true to encode the URL.
+     * @return the built URL
+     */
+    public String toString(boolean encode){
+        if(stringCacheDisabled)
+            return buildString(encode);
+
+        if(encode){
+            if(encodedString == null)
+                encodedString = buildString(true);
+
+            return encodedString;
+        }
+
+        if(string == null)
+            string = buildString(false);
+
+        return string;
+    }
+
+    /**
+     * Builds the URL and appends it to the given builder without creating a string.
+     * If the encode argument is true, it also encodes the URL.
+     * Nothing is appended if the URL cannot be built.
+     *
+     * @param out the builder that the URL is appended to
+     * @param encode true to encode the URL.
+     * @return the given builder
+     */
+    public StringBuilder appendTo(StringBuilder out, boolean encode){
+        String cached = encode ? encodedString : string;
+
+        if(cached != null && !stringCacheDisabled)
+            return out.append(cached);
+
+        int length = out.length();
+        out.ensureCapacity(length + length(encode));
+
+        try{
+            build(out, encode);
+        }
+        catch(RuntimeException e){
+            out.setLength(length);
+            throw e;
+        }
+
+        return out;
+    }
+
+    /**
+     * Builds the URL and appends it to the given appendable, such as a Writer or a CharBuffer.
+     * If the encode argument is true, it also encodes the URL.
+     * The URL is built in a buffer that is reused by the thread and written to a Writer or a CharBuffer
+     * without creating a string. Nothing is appended if the URL cannot be built.
+     *
+     * @param out the appendable that the URL is appended to
+     * @param encode true to encode the URL.
+     * @param <A> type of the appendable
+     * @return the given appendable
+     * @throws IOException If the URL cannot be written to the appendable.
+     */
+    public <A extends Appendable> A appendTo(A out, boolean encode) throws IOException{
+        if(out instanceof StringBuilder){
+            appendTo((StringBuilder) out, encode);
+            return out;
+        }
+
+        String cached = encode ? encodedString : string;
+
+        if(cached != null && !stringCacheDisabled){
+            out.append(cached);
+            return out;
+        }
+
+        RenderBuffer buffer = renderBuffer();
+        StringBuilder url = buffer.builder;
+        build(url, encode);
+
+        if(out instanceof Writer)
+            ((Writer) out).write(buffer.chars(), 0, url.length());
+        else if(out instanceof CharBuffer)
+            ((CharBuffer) out).put(buffer.chars(), 0, url.length());
+        else
+            out.append(url);
+
+        buffer.release();
+        return out;
+    }
+
+    /**
+     * Builds the URL and returns it as a string.
+     *
+     * @return the built URL
+     */
+    @Override
+    public String toString(){
+        return toString(false);
+    }
+
+    /**
+     * Compares the components of the URL with the components of the given object.
+     *
+     * @param o the object to be compared
+     * @return true if the given object is a URL of the same type with the same components
+     */
+    @Override
+    public abstract boolean equals(Object o);
+
+    /**
+     * Returns a hash code computed from the components of the URL. The hash code of a frozen URL is computed once.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode(){
+        if(!frozen)
+            return hashComponents();
+
+        if(hash == 0)
+            hash = hashComponents();
+
+        return hash;
+    }
+
+    /**
+     * Builds the URL and appends it to the given builder.
+     *
+     * @param url the builder that the URL is appended to
+     * @param encode true to encode the URL.
+     */
+    abstract void build(StringBuilder url, boolean encode);
+
+    /**
+     * Returns the length of the built URL without building it, so the builder can be created with the exact capacity.
+     * The returned value may be slightly larger than the actual length when computing it exactly would cost as much
+     * as building the URL. It is never smaller unless the URL cannot be built.
+     *
+     * @param encode true to encode the URL.
+     * @return the length of the built URL
+     */
+    abstract int length(boolean encode);
+
+    /**
+     * Returns the number of the characters of the given non-negative number.
+     *
+     * @param number the number
+     * @return the number of the digits
+     */
+    static int digitCount(int number){
+        int count = 1;
+
+        while(number >= 10){
+            number /= 10;
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the length of the given value after it is encoded, or its own length if it is not encoded.
+     *
+     * @param value the value
+     * @param forHttp true for Http encoding
+     * @param encode true if the value is encoded
+     * @return the length of the value
+     */
+    static int length(String value, boolean forHttp, boolean encode){
+        return encode ? PercentEncoder.encodedLength(value, forHttp) : value.length();
+    }
+
+    /**
+     * Returns the render buffer of the current thread with an empty builder.
+     * The buffer must be released after it is used.
+     *
+     * @return the render buffer
+     */
+    static RenderBuffer renderBuffer(){
+        RenderBuffer buffer = RENDER_BUFFERS.get();
+        buffer.builder.setLength(0);
+        return buffer;
+    }
+
+    /**
+     * Builds the URL and returns it as a string.
+     *
+     * @param encode true to encode the URL.
+     * @return the built URL
+     */
+    private String buildString(boolean encode){
+        StringBuilder url = new StringBuilder(length(encode));
+        build(url, encode);
+        return url.toString();
+    }
+
+    /**
+     * Computes a hash code from the components of the URL.
+     *
+     * @return the hash code
+     */
+    abstract int hashComponents();
+
+    /**
+     * Marks the URL as frozen. Must be called after all of the fields of a frozen copy are set, including the ones
+     * that are otherwise computed when they are first requested. Only the built strings and the hash code are computed
+     * later, since a string is safely published by itself and a hash code is computed the same by every thread.
+     */
+    void markFrozen(){
+        frozen = true;
+
+        //# The fields must be visible to the other threads before the URL is published
+        VarHandle.releaseFence();
+    }
+
+    /**
+     * Discards the built strings. Must be called by all of the methods that modify the URL, before modifying it.
+     *
+     * @throws UnsupportedOperationException If the URL is frozen.
+     */
+    void modified(){
+        if(frozen)
+            throw new UnsupportedOperationException("URL is frozen and cannot be modified");
+
+        string = null;
+        encodedString = null;
+    }
+
+    /**
+     * Stops keeping the built strings. Must be called when the URL can be modified without calling the modified method,
+     * such as when a modifiable collection of the URL is returned to the caller.
+     */
+    void disableStringCache(){
+        stringCacheDisabled = true;
+        string = null;
+        encodedString = null;
+    }
+
+    /**
+     * Discards the built strings and starts keeping them again. Must be called when the URL is reset and
+     * none of its collections that have been returned to the caller is used by the URL anymore.
+     */
+    void enableStringCache(){
+        stringCacheDisabled = false;
+        string = null;
+        encodedString = null;
+    }
+
+    /**
+     * Returns a boolean value indicating that if the built strings are kept.
+     *
+     * @return true if the built strings are kept
+     */
+    boolean isStringCacheEnabled(){
+        return !stringCacheDisabled;
+    }
+
+    /**
+     * Sets the cache that is shared by all of the URL objects for storing the encoded values.
+     *
+     * @param cache the cache, or null to disable caching
+     */
+    static void setEncodingCache(BoundedCache<EncodingKey, String> cache){
+        encodingCache = cache;
+    }
+
+    /**
+     * Returns the cache that is shared by all of the URL objects for storing the encoded values.
+     *
+     * @return the cache, or null if caching is disabled
+     */
+    static BoundedCache<EncodingKey, String> getEncodingCache(){
+        return encodingCache;
+    }
+
+    /**
+     * Returns the cache that is shared by all of the URL objects for storing the ASCII forms of the host names.
+     *
+     * @return the cache
+     */
+    static BoundedCache<String, String> getIDNCache(){
+        return idnCache;
+    }
+
+    /**
+     * Removes the slashes from the given host name, which is how the setHost methods clean the given value.
+     *
+     * @param host the host name
+     * @return the host name without slashes
+     */
+    static String removeSlashes(String host){
+        return host.indexOf('/') < 0 ? host : host.replace("/", "");
+    }
+
+    /**
+     * Removes the first occurrence of one of the given protocol names, each followed by a colon, from the given host name.
+     * The slashes of the protocol are already removed from the host name, so the protocols are searched without them.
+     *
+     * @param host the host name
+     * @param protocols the protocol names with a colon at the end, such as "http:"
+     * @return the host name without the protocol
+     */
+    static String removeProtocol(String host, String... protocols){
+        int start = -1;
+        int length = 0;
+
+        for(String protocol : protocols){
+            int index = host.indexOf(protocol);
+
+            if(index >= 0 && (start < 0 || index < start)){
+                start = index;
+                length = protocol.length();
+            }
+        }
+
+        if(start < 0)
+            return host;
+
+        return host.substring(0, start).concat(host.substring(start + length));
+    }
+
+    /**
+     * Converts the given internationalized host name to its ASCII form (punycode) and returns it.
+     * A host name that consists of only ASCII characters is returned as it is, the others are converted once
+     * and then served from a cache that is shared by all of the URL objects.
+     *
+     * @param host the host name
+     * @return the ASCII form of the host name
+     * @throws URLBuildException If the host name cannot be converted.
+     */
+    static String toASCIIHost(String host){
+        int i = 0;
+        while(i < host.length() && host.charAt(i) < 0x80)
+            i++;
+
+        if(i == host.length())
+            return host;
+
+        String asciiHost = idnCache.get(host);
+
+        if(asciiHost == null){
+            try{
+                asciiHost = IDN.toASCII(host);
+            }
+            catch(IllegalArgumentException e){
+                throw new URLBuildException("Host name cannot be converted to ASCII: " + host);
+            }
+
+            idnCache.put(host, asciiHost);
+        }
+
+        return asciiHost;
+    }
+
     /**
      * Encodes the given value with UTF-8 and returns it.
      *
@@ -49,21 +463,109 @@ abstract class URL {
      * @return the encoded value
      */
     String encode(String value, boolean forHttp){
-        try{
-            String encodedValue = URLEncoder.encode(value, "utf-8");
+        BoundedCache<EncodingKey, String> cache = encodingCache;
 
-            if(forHttp){
-                Map<String, String> nonEncodedChars = Map.of("~", "%7E", "!","%21","(","%28",")","%29","\'","%27");
-                for(Map.Entry<String, String> c : nonEncodedChars.entrySet()){
-                    encodedValue = encodedValue.replaceAll(c.getValue(), c.getKey());
-                }
-            }
-            encodedValue = encodedValue.replaceAll("\\+","%20");
+        if(cache == null || value.length() > MAX_CACHED_VALUE_LENGTH)
+            return PercentEncoder.encode(value, forHttp);
+
+        EncodingKey key = new EncodingKey(value, forHttp);
+        String encodedValue = cache.get(key);
+
+        if(encodedValue == null){
+            encodedValue = PercentEncoder.encode(value, forHttp);
+            cache.put(key, encodedValue);
+        }
+
+        return encodedValue;
+    }
+
+    /**
+     * Encodes the given value with UTF-8 and appends it to the given builder.
+     *
+     * @param value the value to be encoded
+     * @param forHttp true for Http encoding
+     * @param out the builder that the encoded value is appended to
+     */
+    void appendEncoded(String value, boolean forHttp, StringBuilder out){
+        if(encodingCache == null || value.length() > MAX_CACHED_VALUE_LENGTH)
+            PercentEncoder.appendEncoded(value, forHttp, out);
+        else
+            out.append(encode(value, forHttp));
+    }
+
+    /**
+     * Key of an entry in the encoding cache.
+     */
+    static final class EncodingKey {
+        private final String value;
+        private final boolean forHttp;
 
-            return encodedValue;
+        EncodingKey(String value, boolean forHttp){
+            this.value = value;
+            this.forHttp = forHttp;
         }
-        catch(UnsupportedEncodingException e){
-            return value;
+
+        @Override
+        public boolean equals(Object o){
+            if(this == o)
+                return true;
+
+            if(!(o instanceof EncodingKey))
+                return false;
+
+            EncodingKey other = (EncodingKey) o;
+            return forHttp == other.forHttp && value.equals(other.value);
+        }
+
+        @Override
+        public int hashCode(){
+            return 31 * value.hashCode() + (forHttp ? 1 : 0);
+        }
+    }
+
+    /**
+     * A builder and the arrays that are reused by a thread for writing the URLs to the appendables and the streams.
+     */
+    static final class RenderBuffer {
+        final StringBuilder builder = new StringBuilder(256);
+        private char[] chars = new char[256];
+        private byte[] bytes = new byte[256];
+
+        /**
+         * Copies the content of the builder to the character array and returns the array.
+         */
+        char[] chars(){
+            if(chars.length < builder.length())
+                chars = new char[Math.max(builder.length(), chars.length * 2)];
+
+            builder.getChars(0, builder.length(), chars, 0);
+            return chars;
+        }
+
+        /**
+         * Returns an array that has room for at least the given number of bytes.
+         */
+        byte[] bytes(int length){
+            if(bytes.length < length)
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+
+            return bytes;
+        }
+
+        /**
+         * Discards the builder and the arrays if they have grown too much.
+         */
+        void release(){
+            if(builder.capacity() > MAX_RETAINED_BUFFER_SIZE){
+                builder.setLength(0);
+                builder.trimToSize();
+            }
+
+            if(chars.length > MAX_RETAINED_BUFFER_SIZE)
+                chars = new char[256];
+
+            if(bytes.length > MAX_RETAINED_BUFFER_SIZE)
+                bytes = new byte[256];
         }
     }
 }
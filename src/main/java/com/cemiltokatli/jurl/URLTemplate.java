@@ -0,0 +1,293 @@
+package com.cemiltokatli.jurl;
+
+import com.cemiltokatli.jurl.exception.MalformedHttpURLException;
+
+import java.util.*;
+
+/**
+ * Represents a pre-compiled Http(s) URL structure with placeholders.
+ * An object of this class can only be instantiated by the JURL.compile method.
+ *
+ * A placeholder is a name in curly braces, such as "{city}". It can be a whole route parameter or a part of it, such as
+ * "item-{id}", and it can also be placed in the names and the values of the query fields and in the fragment, but not
+ * in the host or the port. The structure is parsed only once, when the template is compiled, and it is split into
+ * literal chunks and slots. Rendering the template copies the chunks and the values of the slots into the output in
+ * a single pass.
+ *
+ * All of the occurrences of a name are substituted by the same value, and a placeholder whose value is not given is
+ * left as it is. If the URL is encoded, each value is encoded as a part of its component, so the characters like
+ * "&amp;" and "=" in the value of a query field are encoded as well. A slash is added after the latest route parameter
+ * unless its literal text or one of its values contains a dot, the name of a placeholder is checked instead of its
+ * value if the value is not given. Unlike the HttpURL.setRouteParam method, which only replaces the whole route
+ * parameters, the placeholders in the parts of the route parameters, the query fields and the fragment are substituted.
+ *
+ * An object of this class is immutable, so it can be shared by multiple threads.
+ */
+public final class URLTemplate {
+    private static final int LITERAL = 0;
+    private static final int SLOT = 1;
+    private static final int DIRECTORY_SLASH = 2;
+
+    private final String structure;
+    private final List<String> slotNames;
+    private final Chunk[] chunks;
+    private final int literalLength;
+
+    /**
+     * Compiles the given structure.
+     *
+     * @param protocol Protocol of the URLs to be rendered.
+     * @param structure the URL structure with placeholders
+     * @throws MalformedHttpURLException If the given structure is malformed.
+     */
+    URLTemplate(String protocol, String structure) throws MalformedHttpURLException{
+        HttpURL url = new HttpURL(protocol).setString(structure);
+        Compiler compiler = new Compiler();
+
+        //Protocol, Host and Port
+        HttpURL origin = new HttpURL(protocol).setHost(url.getHost()).showWWW(url.isWWWShown()).setPort(url.getPort());
+        compiler.appendSeparator(origin.toString(false), origin.toString(true));
+
+        //Route Parameters
+        List<String> routeParameters = url.getRouteParams();
+        for(int i = 0; i < routeParameters.size(); i++){
+            compiler.appendSeparator("/");
+            compiler.appendComponent(routeParameters.get(i), i == routeParameters.size() - 1);
+        }
+
+        //Query Fields
+        QueryParams queryParams = url.getQueryParams();
+        if(queryParams.size() > 0){
+            if(routeParameters.isEmpty())
+                compiler.appendSeparator("/");
+
+            for(int i = 0; i < queryParams.size(); i++){
+                compiler.appendSeparator(i == 0 ? "?" : "&");
+                compiler.appendComponent(queryParams.getName(i), false);
+                compiler.appendSeparator("=");
+                compiler.appendComponent(queryParams.getValue(i), false);
+            }
+        }
+
+        //Fragment
+        if(url.getFragment() != null){
+            if(routeParameters.isEmpty() && queryParams.isEmpty())
+                compiler.appendSeparator("/");
+
+            compiler.appendSeparator("#");
+            compiler.appendComponent(url.getFragment(), false);
+        }
+
+        compiler.flush();
+
+        this.structure = structure;
+        this.slotNames = Collections.unmodifiableList(new ArrayList<>(compiler.slotIndexes.keySet()));
+        this.chunks = compiler.chunks.toArray(new Chunk[0]);
+        this.literalLength = compiler.literalLength;
+    }
+
+    /**
+     * Returns the structure that the template has been compiled from.
+     *
+     * @return the structure
+     */
+    public String getStructure(){
+        return structure;
+    }
+
+    /**
+     * Returns the names of the placeholders in the order they appear in the structure. Each name is returned once.
+     *
+     * @return the names of the placeholders as an unmodifiable list.
+     */
+    public List<String> getSlotNames(){
+        return slotNames;
+    }
+
+    /**
+     * Renders the template with the given values and returns the URL.
+     * A placeholder whose value is not given is left as it is.
+     *
+     * @param bindings values of the placeholders by their names
+     * @return the rendered URL
+     */
+    public String render(Map<String, String> bindings){
+        return render(bindings, false);
+    }
+
+    /**
+     * Renders the template with the given values and returns the URL.
+     * A placeholder whose value is not given is left as it is.
+     * If the encode argument is true, it also encodes the values.
+     *
+     * @param bindings values of the placeholders by their names
+     * @param encode true to encode the URL.
+     * @return the rendered URL
+     */
+    public String render(Map<String, String> bindings, boolean encode){
+        String[] values = new String[slotNames.size()];
+        int length = literalLength;
+
+        for(int i = 0; i < values.length; i++){
+            values[i] = bindings.get(slotNames.get(i));
+
+            if(values[i] != null)
+                length += values[i].length();
+        }
+
+        StringBuilder url = new StringBuilder(length + (length >> 2));
+
+        for(Chunk chunk : chunks){
+            switch(chunk.type){
+                case LITERAL:
+                    url.append(encode ? chunk.encoded : chunk.raw);
+                    break;
+
+                case SLOT:
+                    String value = values[chunk.slots[0]];
+
+                    if(value == null)
+                        url.append(encode ? chunk.encoded : chunk.raw);
+                    else if(encode)
+                        PercentEncoder.appendEncoded(value, true, url);
+                    else
+                        url.append(value);
+                    break;
+
+                case DIRECTORY_SLASH:
+                    //# The latest route parameter is a directory unless one of its placeholders has a dot
+                    boolean directory = true;
+                    for(int slot : chunk.slots){
+                        String slotValue = values[slot];
+
+                        if(slotValue != null ? slotValue.contains(".") : slotNames.get(slot).contains(".")){
+                            directory = false;
+                            break;
+                        }
+                    }
+
+                    if(directory)
+                        url.append("/");
+                    break;
+            }
+        }
+
+        return url.toString();
+    }
+
+    /**
+     * Returns the structure that the template has been compiled from.
+     *
+     * @return the structure
+     */
+    @Override
+    public String toString(){
+        return structure;
+    }
+
+    /**
+     * A piece of a compiled template.
+     */
+    private static final class Chunk {
+        final int type;
+        final String raw;
+        final String encoded;
+        final int[] slots;
+
+        Chunk(int type, String raw, String encoded, int[] slots){
+            this.type = type;
+            this.raw = raw;
+            this.encoded = encoded;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * Splits the components of a structure into chunks while the template is being compiled.
+     */
+    private static final class Compiler {
+        final List<Chunk> chunks = new ArrayList<>();
+        final Map<String, Integer> slotIndexes = new LinkedHashMap<>();
+        final StringBuilder raw = new StringBuilder();
+        final StringBuilder encoded = new StringBuilder();
+        int literalLength;
+
+        /**
+         * Appends a text that is never encoded.
+         */
+        void appendSeparator(String text){
+            appendSeparator(text, text);
+        }
+
+        /**
+         * Appends a text whose encoded form is given.
+         */
+        void appendSeparator(String rawText, String encodedText){
+            raw.append(rawText);
+            encoded.append(encodedText);
+        }
+
+        /**
+         * Appends a component by splitting it into literals and placeholders.
+         * If the component is the latest route parameter, also appends the slash that marks it as a directory.
+         */
+        void appendComponent(String component, boolean latestRouteParameter){
+            List<Integer> slots = new ArrayList<>(1);
+            boolean literalDot = false;
+            int literalStart = 0;
+            int i = 0;
+
+            while(i < component.length()){
+                int close = component.charAt(i) == '{' ? component.indexOf('}', i + 1) : -1;
+
+                if(close > i + 1 && component.lastIndexOf('{', close) == i){
+                    String literal = component.substring(literalStart, i);
+                    literalDot |= literal.contains(".");
+                    appendSeparator(literal, PercentEncoder.encode(literal, true));
+                    flush();
+
+                    String placeholder = component.substring(i, close + 1);
+                    int slot = slotIndexes.computeIfAbsent(placeholder.substring(1, placeholder.length() - 1), name -> slotIndexes.size());
+                    chunks.add(new Chunk(SLOT, placeholder, PercentEncoder.encode(placeholder, true), new int[]{slot}));
+                    slots.add(slot);
+
+                    i = close + 1;
+                    literalStart = i;
+                }
+                else
+                    i++;
+            }
+
+            String literal = component.substring(literalStart);
+            literalDot |= literal.contains(".");
+            appendSeparator(literal, PercentEncoder.encode(literal, true));
+
+            //# If the latest param is a directory, add a slash (/) at the end
+            if(latestRouteParameter && !literalDot){
+                if(slots.isEmpty())
+                    appendSeparator("/");
+                else{
+                    flush();
+
+                    int[] slotArray = new int[slots.size()];
+                    for(int j = 0; j < slotArray.length; j++)
+                        slotArray[j] = slots.get(j);
+
+                    chunks.add(new Chunk(DIRECTORY_SLASH, null, null, slotArray));
+                }
+            }
+        }
+
+        /**
+         * Adds the literal that has been collected so far as a chunk.
+         */
+        void flush(){
+            if(raw.length() > 0){
+                chunks.add(new Chunk(LITERAL, raw.toString(), encoded.toString(), null));
+                literalLength += Math.max(raw.length(), encoded.length());
+                raw.setLength(0);
+                encoded.setLength(0);
+            }
+        }
+    }
+}
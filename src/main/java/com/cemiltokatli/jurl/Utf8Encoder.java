@@ -0,0 +1,121 @@
+package com.cemiltokatli.jurl;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes characters to UTF-8 bytes without creating intermediate strings or arrays.
+ *
+ * Unpaired surrogate characters are encoded as "?", in the same way as String.getBytes does.
+ */
+final class Utf8Encoder {
+    private Utf8Encoder(){
+    }
+
+    /**
+     * Returns the number of the bytes that the given characters are encoded to.
+     *
+     * @param value the characters to be encoded
+     * @return the number of the bytes
+     */
+    static int length(CharSequence value){
+        int length = 0;
+
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+
+            if(c < 0x80)
+                length++;
+            else if(c < 0x800)
+                length += 2;
+            else if(Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))){
+                length += 4;
+                i++;
+            }
+            else if(Character.isSurrogate(c))
+                length++;
+            else
+                length += 3;
+        }
+
+        return length;
+    }
+
+    /**
+     * Encodes the given characters to the given buffer. The buffer must have enough room for all of the bytes.
+     *
+     * @param value the characters to be encoded
+     * @param out the buffer that the bytes are written to
+     */
+    static void write(CharSequence value, ByteBuffer out){
+        if(out.hasArray()){
+            int position = out.position();
+            int end = write(value, out.array(), out.arrayOffset() + position);
+            out.position(end - out.arrayOffset());
+            return;
+        }
+
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+
+            if(c < 0x80)
+                out.put((byte) c);
+            else if(c < 0x800){
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+            else if(Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))){
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xF0 | (codePoint >> 18)));
+                out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (codePoint & 0x3F)));
+            }
+            else if(Character.isSurrogate(c))
+                out.put((byte) '?');
+            else{
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Encodes the given characters to the given array. The array must have enough room for all of the bytes.
+     *
+     * @param value the characters to be encoded
+     * @param out the array that the bytes are written to
+     * @param offset the index of the first byte to be written
+     * @return the index after the last byte written
+     */
+    static int write(CharSequence value, byte[] out, int offset){
+        int j = offset;
+
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+
+            if(c < 0x80)
+                out[j++] = (byte) c;
+            else if(c < 0x800){
+                out[j++] = (byte) (0xC0 | (c >> 6));
+                out[j++] = (byte) (0x80 | (c & 0x3F));
+            }
+            else if(Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))){
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out[j++] = (byte) (0xF0 | (codePoint >> 18));
+                out[j++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[j++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[j++] = (byte) (0x80 | (codePoint & 0x3F));
+            }
+            else if(Character.isSurrogate(c))
+                out[j++] = (byte) '?';
+            else{
+                out[j++] = (byte) (0xE0 | (c >> 12));
+                out[j++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[j++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        return j;
+    }
+}
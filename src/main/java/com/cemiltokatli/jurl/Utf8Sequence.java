@@ -0,0 +1,103 @@
+package com.cemiltokatli.jurl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A view of UTF-8 encoded bytes as a sequence of characters for scanning a URL.
+ *
+ * Every byte is returned as a single character, so the structural characters of a URL, which are all ASCII,
+ * can be found without decoding the bytes. Bytes of a multi-byte character are returned as characters that are
+ * greater than 0x7F and never match a structural character. The bytes are decoded only when a part of the
+ * sequence is converted to a string. The bytes are not copied, so they must not be modified while the view is in use.
+ */
+final class Utf8Sequence implements CharSequence {
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+    /**
+     * Creates a new view of the bytes of the given buffer between the given indexes.
+     *
+     * @param buffer the buffer that holds the bytes
+     * @param offset the absolute index of the first byte in the buffer
+     * @param length number of the bytes
+     */
+    Utf8Sequence(ByteBuffer buffer, int offset, int length){
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length(){
+        return length;
+    }
+
+    @Override
+    public char charAt(int index){
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end){
+        return new Utf8Sequence(buffer, offset + start, end - start);
+    }
+
+    /**
+     * Checks if the bytes between the given indexes are the UTF-8 encoded form of the given characters.
+     *
+     * @param start the index of the first byte, inclusive
+     * @param end the index of the last byte, exclusive
+     * @param value the characters to be compared
+     * @return true if the bytes represent the given characters
+     */
+    boolean regionEquals(int start, int end, CharSequence value){
+        boolean ascii = true;
+        for(int i = 0; i < value.length() && ascii; i++){
+            ascii = value.charAt(i) < 0x80;
+        }
+
+        if(!ascii)
+            return decode(start, end).contentEquals(value);
+
+        if(end - start != value.length())
+            return false;
+
+        for(int i = start; i < end; i++){
+            if(charAt(i) != value.charAt(i - start))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Decodes all of the bytes and returns them as a string.
+     *
+     * @return the decoded string
+     */
+    @Override
+    public String toString(){
+        return decode(0, length);
+    }
+
+    /**
+     * Decodes the bytes between the given indexes and returns them as a string.
+     *
+     * @param start the index of the first byte, inclusive
+     * @param end the index of the last byte, exclusive
+     * @return the decoded string
+     */
+    private String decode(int start, int end){
+        if(buffer.hasArray())
+            return new String(buffer.array(), buffer.arrayOffset() + offset + start, end - start, StandardCharsets.UTF_8);
+
+        byte[] bytes = new byte[end - start];
+        for(int i = 0; i < bytes.length; i++){
+            bytes[i] = buffer.get(offset + start + i);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
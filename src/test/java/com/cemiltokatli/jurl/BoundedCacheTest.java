@@ -0,0 +1,85 @@
+package com.cemiltokatli.jurl;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is designed for testing the BoundedCache class under the "com.cemiltokatli.jurl" package.
+ */
+public class BoundedCacheTest {
+    /**
+     * Tests that the cache never exceeds its capacity and evicts the least recently used entries.
+     */
+    @Test
+    @DisplayName("Test Eviction")
+    public void testEviction(){
+        BoundedCache<String, String> cache = new BoundedCache<>(4);
+
+        for(int i = 0; i < 4; i++)
+            cache.put("key" + i, "value" + i);
+
+        //# The first key is used, so the second one is the least recently used entry
+        assertEquals("value0", cache.get("key0"), "Cached value is lost.");
+        cache.put("key4", "value4");
+
+        assertEquals(4, cache.size(), "Cache exceeds its capacity.");
+        assertNull(cache.get("key1"), "Least recently used entry is not evicted.");
+        assertEquals("value0", cache.get("key0"), "Recently used entry is evicted.");
+        assertEquals("value4", cache.get("key4"), "New entry is not stored.");
+
+        for(int i = 0; i < 1000; i++)
+            cache.put("other" + i, "value");
+
+        assertTrue(cache.size() <= 4, "Cache exceeds its capacity.");
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<String, String>(0), "Invalid capacity is accepted.");
+    }
+
+    /**
+     * Tests the statistics of the cache.
+     */
+    @Test
+    @DisplayName("Test Statistics")
+    public void testStats(){
+        BoundedCache<String, String> cache = new BoundedCache<>(100);
+        cache.put("a", "1");
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+
+        CacheStats stats = cache.getStats();
+        assertEquals(2, stats.getHitCount(), "Hit count error.");
+        assertEquals(1, stats.getMissCount(), "Miss count error.");
+        assertEquals(1, stats.getSize(), "Size error.");
+        assertEquals(100, stats.getCapacity(), "Capacity error.");
+
+        cache.clear();
+        assertEquals(0, cache.size(), "Cache is not cleared.");
+        assertEquals(2, cache.getStats().getHitCount(), "Statistics are reset by clear.");
+    }
+
+    /**
+     * Tests that a frequency-aware cache keeps the frequently requested entries when it is full.
+     */
+    @Test
+    @DisplayName("Test Frequency-Aware Admission")
+    public void testFrequencyAware(){
+        BoundedCache<String, String> cache = new BoundedCache<>(4, true);
+
+        for(int i = 0; i < 4; i++){
+            cache.put("hot" + i, "value");
+
+            for(int j = 0; j < 5; j++)
+                cache.get("hot" + i);
+        }
+
+        //# Keys that are requested only once cannot push the popular ones out
+        for(int i = 0; i < 100; i++){
+            cache.get("cold" + i);
+            cache.put("cold" + i, "value");
+        }
+
+        for(int i = 0; i < 4; i++)
+            assertEquals("value", cache.get("hot" + i), "Frequently requested entry is evicted.");
+    }
+}
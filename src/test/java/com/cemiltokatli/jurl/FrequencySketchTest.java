@@ -0,0 +1,50 @@
+package com.cemiltokatli.jurl;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is designed for testing the FrequencySketch class under the "com.cemiltokatli.jurl" package.
+ */
+public class FrequencySketchTest {
+    /**
+     * Tests that the estimated frequencies are never lower than the real ones before the counters are halved.
+     */
+    @Test
+    @DisplayName("Test Frequency Estimation")
+    public void testFrequency(){
+        FrequencySketch sketch = new FrequencySketch(64);
+
+        for(int i = 0; i < 10; i++)
+            sketch.increment("key" + i % 5);
+
+        for(int i = 0; i < 5; i++)
+            assertTrue(sketch.frequency("key" + i) >= 2, "Frequency is underestimated.");
+
+        for(int i = 0; i < 100; i++)
+            sketch.increment("hot");
+
+        assertEquals(15, sketch.frequency("hot"), "Frequency is not bounded.");
+    }
+
+    /**
+     * Tests that the counters are halved after enough requests so that the old popular keys are forgotten.
+     */
+    @Test
+    @DisplayName("Test Aging")
+    public void testAging(){
+        FrequencySketch sketch = new FrequencySketch(16);
+
+        for(int i = 0; i < 15; i++)
+            sketch.increment("old");
+
+        assertEquals(15, sketch.frequency("old"), "Frequency error.");
+
+        //# The sample size of a sketch with a capacity of 16 is 160
+        for(int i = 0; i < 160; i++)
+            sketch.increment("new" + i);
+
+        assertTrue(sketch.frequency("old") < 15, "Counters are not halved.");
+    }
+}
@@ -0,0 +1,57 @@
+package com.cemiltokatli.jurl;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Random;
+
+/**
+ * This class is designed for testing the PercentEncoder class under the "com.cemiltokatli.jurl" package.
+ */
+public class PercentEncoderTest {
+    /**
+     * Tests the encoder by comparing its output with the output of the java.net.URLEncoder class.
+     */
+    @Test
+    @DisplayName("Test Encoding")
+    public void testEncode() throws UnsupportedEncodingException{
+        Random random = new Random(1);
+        char[] samples = {'a', 'Z', '5', ' ', '+', '/', '?', '&', '=', '%', '~', '!', '(', ')', '\'', '*', '-', '.', '_',
+                '\u00e9', '\u4e2d', '\ud83d', '\ude00'};
+
+        for(int i = 0; i < 2000; i++){
+            StringBuilder value = new StringBuilder();
+            for(int j = random.nextInt(20); j > 0; j--)
+                value.append(samples[random.nextInt(samples.length)]);
+
+            String expected = URLEncoder.encode(value.toString(), "UTF-8").replace("+", "%20");
+            String expectedHttp = expected.replace("%7E", "~").replace("%21", "!").replace("%28", "(")
+                    .replace("%29", ")").replace("%27", "'");
+
+            assertEquals(expected, PercentEncoder.encode(value.toString(), false), "Encoding error.");
+            assertEquals(expectedHttp, PercentEncoder.encode(value.toString(), true), "Http encoding error.");
+            assertEquals(expectedHttp.length(), PercentEncoder.encodedLength(value, true), "Encoded length error.");
+
+            StringBuilder out = new StringBuilder("x");
+            PercentEncoder.appendEncoded(value, false, out);
+            assertEquals("x" + expected, out.toString(), "Encoding error.");
+        }
+    }
+
+    /**
+     * Tests that a value without any unsafe characters is returned as it is.
+     */
+    @Test
+    @DisplayName("Test Safe Values")
+    public void testSafeValue(){
+        String value = "abc-XYZ_09.*";
+
+        assertSame(value, PercentEncoder.encode(value, false), "Safe value is copied.");
+        assertEquals(-1, PercentEncoder.indexOfUnsafe(value, false), "Safe value is not detected.");
+        assertEquals(3, PercentEncoder.indexOfUnsafe("abc~", false), "Unsafe character is not detected.");
+        assertEquals(-1, PercentEncoder.indexOfUnsafe("abc~", true), "Http safe character is not detected.");
+    }
+}
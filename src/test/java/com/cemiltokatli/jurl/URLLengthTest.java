@@ -0,0 +1,27 @@
+package com.cemiltokatli.jurl;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is designed for testing the lengths that the URL classes under the "com.cemiltokatli.jurl" package
+ * compute before building the URLs.
+ */
+public class URLLengthTest {
+    /**
+     * Tests that the computed length of a Base64 data URL is the length of the built URL, including multi-byte characters.
+     */
+    @Test
+    @DisplayName("Test Base64 Data Length")
+    public void testBase64Length(){
+        String[] samples = {"a", "ab", "abc", "\u00e7", "\u00e7a", "\u4e2d\u6587", "\ud83d\ude00", "de\u011fer \ud83d\ude00 \u00e7ay"};
+
+        for(String sample : samples){
+            DataURL url = JURL.build(Protocol.DATA).setMediaType("text/plain").setBase64(true).setData(sample);
+
+            assertEquals(url.toString(true).length(), url.length(true), "Length error with Base64 data.");
+            assertEquals(url.toString(false).length(), url.length(false), "Length error with Base64 data.");
+        }
+    }
+}
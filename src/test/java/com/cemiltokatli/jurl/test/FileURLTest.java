@@ -121,6 +121,39 @@ public class FileURLTest {
         }
     }
 
+    /**
+     * Tests the conversion of the internationalized host names to ASCII.
+     */
+    @Test
+    @DisplayName("Test IDN Host")
+    public void testIDNHost(){
+        FileURL testURL = JURL.build(Protocol.FTP).setHost("ftp://b\u00fccher.example").addPathSegment("file.txt");
+
+        assertEquals("ftp://b\u00fccher.example/file.txt", testURL.toString(), "URL building error without encoding.");
+        assertEquals("ftp://xn--bcher-kva.example/file.txt", testURL.toString(true), "URL building error with IDN host.");
+        assertEquals("xn--bcher-kva.example", testURL.getASCIIHost(), "IDN conversion error.");
+    }
+
+    /**
+     * Tests that a reset URL can be built again as if it was a new one.
+     */
+    @Test
+    @DisplayName("Test Reset")
+    public void testReset(){
+        FileURL testURL = JURL.build(Protocol.FTP).setUsername("user").setPassword("pass").setHost("b\u00fccher.example")
+                .setPort(21).addPathSegment("file.txt");
+        testURL.toString(true);
+
+        testURL.reset().setHost("domain.com").addPathSegment("dir");
+        assertEquals("ftp://domain.com/dir/", testURL.toString(), "URL building error after reset.");
+        assertEquals("domain.com", testURL.getASCIIHost(), "URL building error after reset.");
+
+        FileURL reused = JURL.reuse(Protocol.SFTP).setHost("domain.com").addPathSegment("first.txt");
+        assertEquals("sftp://domain.com/first.txt", reused.toString(), "URL building error with reuse.");
+        assertSame(reused, JURL.reuse(Protocol.SFTP), "URL is not reused.");
+        assertEquals("sftp://domain.com/second.txt", reused.setHost("domain.com").addPathSegment("second.txt").toString(), "Reused URL is not reset.");
+    }
+
 
     /**
      * An object of this class represents a single File URL for testing purposes.
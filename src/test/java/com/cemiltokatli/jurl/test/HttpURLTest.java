@@ -1,18 +1,37 @@
 package com.cemiltokatli.jurl.test;
 
+import com.cemiltokatli.jurl.CacheStats;
 import com.cemiltokatli.jurl.HttpURL;
+import com.cemiltokatli.jurl.HttpURLFileParser;
 import com.cemiltokatli.jurl.JURL;
 import com.cemiltokatli.jurl.Protocol;
+import com.cemiltokatli.jurl.QueryParams;
 import com.cemiltokatli.jurl.exception.MalformedHttpURLException;
+import com.cemiltokatli.jurl.exception.URLBuildException;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.net.IDN;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 import java.io.File;
 
 /**
@@ -186,6 +205,699 @@ public class HttpURLTest {
         }
     }
 
+    /**
+     * Tests the setRouteParams method by comparing its output with the output of the setRouteParam method.
+     */
+    @Test
+    @DisplayName("Test Bulk Route Parameter Binding")
+    public void testSetRouteParams() throws MalformedHttpURLException{
+        if(testURLBuildData == null || testURLBuildParseData == null)
+            initAll();
+
+        for(URL url : testURLBuildParseData){
+            HttpURL expected = JURL.build(url.protocol).setString(url.structure);
+            HttpURL testURL = JURL.build(url.protocol).setString(url.structure);
+            Map<String, String> values = new HashMap<>();
+
+            for (int i = 1; i < url.routeParametersAliases.size(); i+=2){
+                expected.setRouteParam(url.routeParametersAliases.get(i-1), url.routeParametersAliases.get(i));
+                values.put(url.routeParametersAliases.get(i-1), url.routeParametersAliases.get(i));
+            }
+
+            testURL.setRouteParams(values);
+            assertEquals(expected.toString(), testURL.toString(), "URL building error with bulk binding.");
+        }
+
+        HttpURL testURL = JURL.build(Protocol.HTTP).setString("domain.com/{a}/{b}/{a}/item-{id}")
+                .setEncodeOnWrite(true)
+                .setRouteParam("a", "x y")
+                .addRouteParam("{c}")
+                .setRouteParams(Collections.singletonMap("c", "{d}"))
+                .setRouteParam("d", "page.html");
+        assertEquals("http://domain.com/x y/{b}/x y/item-{id}/page.html", testURL.toString(), "URL building error with bulk binding.");
+        assertEquals("http://domain.com/x%20y/%7Bb%7D/x%20y/item-%7Bid%7D/page.html", testURL.toString(true), "URL building error with bulk binding.");
+
+        //Placeholders added through the list returned by the getter
+        testURL.getRouteParams().set(1, "{e}");
+        testURL.removeRouteParam("x y").setRouteParams(Collections.singletonMap("e", "f"));
+        assertEquals("http://domain.com/f/x y/item-{id}/page.html", testURL.toString(), "URL building error with bulk binding.");
+
+        //Placeholders without a name are matched in the same way with and without the index
+        HttpURL indexedURL = JURL.build(Protocol.HTTP).setString("domain.com/{}/x");
+        HttpURL exposedURL = JURL.build(Protocol.HTTP).setString("domain.com/{}/x");
+        exposedURL.getRouteParams();
+        assertEquals("http://domain.com/v/x/", indexedURL.setRouteParam("", "v").toString(), "URL building error with an empty placeholder.");
+        assertEquals("http://domain.com/v/x/", exposedURL.setRouteParam("", "v").toString(), "URL building error with an empty placeholder.");
+    }
+
+    /**
+     * Tests the encode-on-write mode by comparing its output with the output of the default mode.
+     */
+    @Test
+    @DisplayName("Test Encode-On-Write Mode")
+    public void testEncodeOnWrite(){
+        if(testURLBuildData == null || testURLBuildParseData == null)
+            initAll();
+
+        for(URL url : testURLBuildData){
+            HttpURL defaultURL = JURL.build(url.protocol);
+            HttpURL encodeOnWriteURL = JURL.build(url.protocol).setEncodeOnWrite(true);
+
+            for(HttpURL testURL : new HttpURL[]{defaultURL, encodeOnWriteURL}){
+                testURL.setHost(url.host);
+                testURL.setPort(url.port);
+                testURL.showWWW(url.shownWWW);
+
+                for (String routeParam : url.routeParameters)
+                    testURL.addRouteParam(routeParam);
+
+                for (Map.Entry<String, String> queryField : url.queryFields.entrySet()) {
+                    testURL.addQueryField(queryField.getKey(), queryField.getValue());
+                }
+
+                testURL.setFragment(url.fragment);
+            }
+
+            assertEquals(defaultURL.toString(true), encodeOnWriteURL.toString(true), "URL building error with encode-on-write mode.");
+            assertEquals(defaultURL.toString(), encodeOnWriteURL.toString(), "URL building error with encode-on-write mode.");
+
+            if(!url.routeParameters.isEmpty()){
+                defaultURL.removeRouteParam(url.routeParameters.get(0));
+                encodeOnWriteURL.removeRouteParam(url.routeParameters.get(0));
+                assertEquals(defaultURL.toString(true), encodeOnWriteURL.toString(true), "URL building error with encode-on-write mode.");
+            }
+        }
+    }
+
+    /**
+     * Tests the shared encoding cache by comparing the URLs built with and without it.
+     */
+    @Test
+    @DisplayName("Test Encoding Cache")
+    public void testEncodingCache(){
+        if(testURLBuildData == null || testURLBuildParseData == null)
+            initAll();
+
+        List<String> expected = new ArrayList<>();
+        for(URL url : testURLBuildData)
+            expected.add(buildTestURL(url).toString(true));
+
+        JURL.enableEncodingCache(1000);
+        try{
+            for(int round = 0; round < 2; round++){
+                for(int i = 0; i < testURLBuildData.size(); i++){
+                    assertEquals(expected.get(i), buildTestURL(testURLBuildData.get(i)).toString(true), "URL building error with encoding cache.");
+                }
+            }
+
+            CacheStats stats = JURL.getEncodingCacheStats();
+            assertTrue(stats.getHitCount() > 0, "Encoding cache is not used.");
+            assertTrue(stats.getSize() <= stats.getCapacity(), "Encoding cache exceeds its capacity.");
+        }
+        finally{
+            JURL.disableEncodingCache();
+        }
+
+        assertNull(JURL.getEncodingCacheStats());
+    }
+
+    /**
+     * Tests the lazy parse mode by comparing its results with the results of the default mode.
+     */
+    @Test
+    @DisplayName("Test Lazy Parsing")
+    public void testLazyParse() throws MalformedHttpURLException{
+        if(testURLBuildData == null || testURLBuildParseData == null)
+            initAll();
+
+        for(URL url : testURLBuildParseData){
+            HttpURL eagerURL = JURL.build(url.protocol).setString(url.structure);
+            HttpURL lazyURL = JURL.build(url.protocol).setString(url.structure, true);
+
+            assertEquals(eagerURL.getHost(), lazyURL.getHost(), "Host parsing error in lazy mode.");
+            assertEquals(eagerURL.getFragment(), lazyURL.getFragment(), "Fragment parsing error in lazy mode.");
+            assertEquals(eagerURL.toString(), lazyURL.toString(), "URL building error in lazy mode.");
+            assertEquals(eagerURL.getRouteParams(), lazyURL.getRouteParams(), "Route parameter parsing error in lazy mode.");
+            assertEquals(eagerURL.getQueryFields(), lazyURL.getQueryFields(), "Query parsing error in lazy mode.");
+        }
+
+        HttpURL lazyURL = JURL.build(Protocol.HTTP).setString("domain.com/{page}?id=1#top", true);
+        lazyURL.setRouteParam("page", "index.jsp").addQueryField("lang", "en");
+        assertEquals("http://domain.com/index.jsp?id=1&lang=en#top", lazyURL.toString(), "URL building error in lazy mode.");
+    }
+
+    /**
+     * Tests the shared parse cache by comparing the URLs parsed with and without it.
+     */
+    @Test
+    @DisplayName("Test Parse Cache")
+    public void testParseCache() throws MalformedHttpURLException{
+        if(testURLBuildData == null || testURLBuildParseData == null)
+            initAll();
+
+        //Expected results are parsed without the cache
+        List<String> expected = new ArrayList<>();
+        for(URL url : testURLBuildParseData)
+            expected.add(JURL.build(url.protocol).setString(url.structure).toString());
+
+        JURL.enableParseCache(100);
+        try{
+            for(int round = 0; round < 3; round++){
+                for(int i = 0; i < testURLBuildParseData.size(); i++){
+                    URL url = testURLBuildParseData.get(i);
+                    HttpURL cached = JURL.build(url.protocol).setString(url.structure);
+
+                    assertEquals(expected.get(i), cached.toString(), "URL parsing error with parse cache.");
+                }
+
+                if(round > 0)
+                    assertTrue(JURL.getParseCacheStats().getHitCount() > 0, "Parse cache is not used.");
+            }
+
+            JURL.enableParseCache(100);
+            HttpURL first = JURL.build(Protocol.HTTP).setString("domain.com/{page}?id=1");
+            HttpURL second = JURL.build(Protocol.HTTP).setString("domain.com/{page}?id=1", true);
+            first.setRouteParam("page", "index.jsp").addQueryField("lang", "en");
+
+            assertEquals("http://domain.com/index.jsp?id=1&lang=en", first.toString(), "URL parsing error with parse cache.");
+            assertEquals("http://domain.com/{page}/?id=1", second.toString(), "Cached URLs are not independent.");
+
+            CacheStats stats = JURL.getParseCacheStats();
+            assertEquals(1, stats.getHitCount(), "Parse cache is not used.");
+        }
+        finally{
+            JURL.disableParseCache();
+        }
+    }
+
+    /**
+     * Tests the parsing of UTF-8 encoded URLs by comparing the results with the results of the setString method.
+     */
+    @Test
+    @DisplayName("Test Byte Parsing")
+    public void testByteParse() throws MalformedHttpURLException{
+        if(testURLBuildData == null || testURLBuildParseData == null)
+            initAll();
+
+        List<String> structures = new ArrayList<>();
+        for(URL url : testURLBuildParseData)
+            structures.add(url.structure);
+        structures.add("https://www.d\u00f6main.com:8080/caf\u00e9/\u4e2d/?q=\u00fc&id=1#fr\u00e4g");
+
+        for(String structure : structures){
+            byte[] bytes = ("  " + structure + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length);
+            directBuffer.put(bytes).flip();
+
+            HttpURL expected = JURL.build(Protocol.HTTP).setString(structure);
+            HttpURL arrayURL = JURL.build(Protocol.HTTP).setBytes(bytes, 0, bytes.length);
+            HttpURL bufferURL = JURL.build(Protocol.HTTP).setBytes(directBuffer);
+
+            for(HttpURL testURL : new HttpURL[]{arrayURL, bufferURL}){
+                assertEquals(expected.getHost(), testURL.getHost(), "Host parsing error from bytes.");
+                assertEquals(expected.getQueryField("q"), testURL.getQueryField("q"), "Query parsing error from bytes.");
+                assertEquals(expected.getRouteParams(), testURL.getRouteParams(), "Route parameter parsing error from bytes.");
+                assertEquals(expected.toString(), testURL.toString(), "URL building error from bytes.");
+            }
+        }
+    }
+
+    /**
+     * Tests the parallel parsing of a file that contains a URL on each line.
+     */
+    @Test
+    @DisplayName("Test File Parsing")
+    public void testFileParse() throws IOException{
+        Path file = Files.createTempFile("HttpURLTest", ".txt");
+
+        try{
+            StringBuilder content = new StringBuilder();
+            for(int i = 0; i < 40000; i++){
+                if(i % 1000 == 999)
+                    content.append("domain.com:port").append(i).append("\n");
+                else if(i % 2 == 0)
+                    content.append("https://www.domain.com/page/").append(i).append("/index.html?id=").append(i).append("\r\n");
+                else
+                    content.append("http://d\u00f6main.com/").append(i).append("\n\n");
+            }
+            Files.write(file, content.toString().getBytes("utf-8"));
+
+            AtomicInteger urlCount = new AtomicInteger();
+            AtomicInteger errorCount = new AtomicInteger();
+            ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+
+            HttpURLFileParser.parse(file, Protocol.HTTPS, new HttpURLFileParser.Listener(){
+                @Override
+                public void onURL(long offset, HttpURL url){
+                    urlCount.incrementAndGet();
+                    String id = url.getRouteParams().get(url.getRouteParams().size() > 1 ? 1 : 0);
+
+                    if(url.getRouteParams().size() > 1 && !id.equals(url.getQueryField("id")))
+                        failures.add(url.toString());
+                    else if(url.getRouteParams().size() == 1 && !url.getHost().equals("d\u00f6main.com"))
+                        failures.add(url.toString());
+                }
+
+                @Override
+                public void onError(long offset, String line, MalformedHttpURLException exception){
+                    errorCount.incrementAndGet();
+
+                    if(!line.startsWith("domain.com:port"))
+                        failures.add(line);
+                }
+            });
+
+            assertEquals(40, errorCount.get(), "File parsing error.");
+            assertEquals(39960, urlCount.get(), "File parsing error.");
+            assertTrue(failures.isEmpty(), "File parsing error: " + failures.peek());
+        }
+        finally{
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests that the protocol and the "www." are removed from the host name when it is set.
+     */
+    @Test
+    @DisplayName("Test Host Normalization")
+    public void testHostNormalization(){
+        HttpURL testURL = JURL.build(Protocol.HTTP).setHost("https://www.domain.com");
+
+        assertEquals("https:www.domain.com", testURL.getHost(), "Host name is not cleaned.");
+        assertEquals("http://www.domain.com", testURL.toString(), "URL building error with host normalization.");
+        assertEquals("http://www.domain.com", testURL.showWWW(true).toString(), "URL building error with host normalization.");
+        assertEquals("http://www.www.com", testURL.setHost("www.com").toString(), "URL building error with host normalization.");
+        assertEquals("http://www.xn--bcher-kva.example", testURL.setHost("http://www.b\u00fccher.example").toString(true), "URL building error with host normalization.");
+        assertEquals("http://www.b\u00fccher.example", testURL.toString(), "URL building error with host normalization.");
+    }
+
+    /**
+     * Tests that a reset URL can be built again as if it was a new one, and the reuse method of the JURL class.
+     */
+    @Test
+    @DisplayName("Test Reset")
+    public void testReset() throws MalformedHttpURLException{
+        HttpURL testURL = JURL.build(Protocol.HTTP).setString("www.domain.com:8080/{page}?id=1#top").setEncodeOnWrite(true);
+        testURL.toString();
+
+        testURL.reset().setString("domain.com/a b/{page}?lang=en").setRouteParam("page", "index.html");
+        assertEquals("http://domain.com/a b/index.html?lang=en", testURL.toString(), "URL building error after reset.");
+        assertEquals("http://domain.com/a%20b/index.html?lang=en", testURL.toString(true), "URL building error after reset.");
+
+        //Collections returned by the getters and shared with a fork are not cleared
+        List<String> routeParams = testURL.getRouteParams();
+        HttpURL fork = testURL.fork();
+        testURL.reset().setHost("other.com").addQueryField("id", "2");
+        assertEquals(Arrays.asList("a b", "index.html"), routeParams, "Returned list is cleared by reset.");
+        assertEquals("http://domain.com/a b/index.html?lang=en", fork.toString(), "Fork is changed by reset.");
+        assertEquals("http://other.com/?id=2", testURL.toString(), "URL building error after reset.");
+
+        assertThrows(UnsupportedOperationException.class, () -> testURL.freeze().reset(), "Frozen URL is reset.");
+
+        //Reused objects
+        HttpURL reused = JURL.reuse(Protocol.HTTPS).setHost("domain.com").addRouteParam("first");
+        assertEquals("https://domain.com/first/", reused.toString(), "URL building error with reuse.");
+        assertSame(reused, JURL.reuse(Protocol.HTTPS), "URL is not reused.");
+        assertEquals("https://domain.com/second/", reused.setHost("domain.com").addRouteParam("second").toString(), "Reused URL is not reset.");
+        assertNotSame(reused, JURL.reuse(Protocol.HTTP), "URL is reused for another protocol.");
+    }
+
+    /**
+     * Tests the batch build methods by comparing their results with the URLs built one by one.
+     */
+    @Test
+    @DisplayName("Test Batch Build")
+    public void testBatchBuild() throws MalformedHttpURLException{
+        List<Integer> records = new LinkedList<>();
+        List<Map<String, String>> bindings = new ArrayList<>();
+        for(int i = 0; i < 10000; i++){
+            records.add(i);
+            bindings.add(Collections.singletonMap("id", "item " + i));
+        }
+
+        List<String> fromProtocol = JURL.buildAll(Protocol.HTTPS, records,
+                (HttpURL url, Integer i) -> url.setHost("domain.com").addRouteParam("item " + i).addQueryField("id", String.valueOf(i)), true);
+        List<String> fromTemplate = JURL.buildAll(JURL.compile(Protocol.HTTPS, "domain.com/{id}?id={id}"), bindings, true);
+
+        HttpURL base = JURL.build(Protocol.HTTPS).setString("domain.com/products?lang=en");
+        List<String> fromBase = JURL.buildAll(base, records, (HttpURL url, Integer i) -> url.addRouteParam(i + ".html"), false);
+
+        assertEquals(10000, fromProtocol.size(), "Batch building error.");
+        for(int i = 0; i < 10000; i++){
+            assertEquals("https://domain.com/item%20" + i + "/?id=" + i, fromProtocol.get(i), "Batch building error.");
+            assertEquals("https://domain.com/item%20" + i + "/?id=item%20" + i, fromTemplate.get(i), "Batch building error.");
+            assertEquals("https://domain.com/products/" + i + ".html?lang=en", fromBase.get(i), "Batch building error.");
+        }
+        assertEquals("https://domain.com/products/?lang=en", base.toString(), "Base URL is modified by batch building.");
+
+        //Records that are not in a list
+        Iterable<Integer> stream = IntStream.range(0, 10000).boxed()::iterator;
+        assertEquals(fromBase, JURL.buildAll(base, stream, (HttpURL url, Integer i) -> url.addRouteParam(i + ".html"), false), "Batch building error with a stream.");
+
+        assertThrows(URLBuildException.class, () -> JURL.buildAll(Protocol.HTTP, records, (HttpURL url, Integer i) -> {
+            if(i != 5000)
+                url.setHost("domain.com");
+        }, false), "Batch building error.");
+    }
+
+    /**
+     * Tests the query iteration and lookup methods on both parsed and built URLs.
+     */
+    @Test
+    @DisplayName("Test Query Iteration")
+    public void testQueryIteration() throws MalformedHttpURLException{
+        HttpURL parsedURL = JURL.build(Protocol.HTTP).setString("domain.com/?utm_source=mail&id=100&lang=en", true);
+        HttpURL builtURL = JURL.build(Protocol.HTTP).setHost("domain.com")
+                .addQueryField("utm_source", "mail").addQueryField("id", "100").addQueryField("lang", "en");
+
+        for(HttpURL testURL : new HttpURL[]{parsedURL, builtURL}){
+            StringBuilder fields = new StringBuilder();
+            testURL.forEachQueryParam((name, value) -> fields.append(name).append(':').append(value).append(';'));
+
+            assertEquals("utm_source:mail;id:100;lang:en;", fields.toString(), "Query iteration error.");
+            assertEquals("100", testURL.getQueryField(new StringBuilder("id")), "Query lookup error.");
+            assertEquals("en", testURL.getQueryField("lang"), "Query lookup error.");
+            assertNull(testURL.getQueryField("page"), "Query lookup error.");
+        }
+    }
+
+    /**
+     * Tests the parsing of the query fields that are empty or have no value.
+     */
+    @Test
+    @DisplayName("Test Query Parsing")
+    public void testQueryParsing() throws MalformedHttpURLException{
+        HttpURL testURL = JURL.build(Protocol.HTTP).setString("https://www.domain.com:8080/foo/?flag&&id=1&expr=a=b#top");
+
+        assertEquals("domain.com", testURL.getHost(), "Host parsing error.");
+        assertTrue(testURL.isWWWShown(), "WWW parsing error.");
+        assertEquals(8080, testURL.getPort(), "Port parsing error.");
+        assertEquals("", testURL.getQueryFields().get("flag"), "Query parsing error.");
+        assertEquals("1", testURL.getQueryFields().get("id"), "Query parsing error.");
+        assertEquals("a=b", testURL.getQueryFields().get("expr"), "Query parsing error.");
+        assertEquals(3, testURL.getQueryFields().size(), "Query parsing error.");
+        assertEquals("top", testURL.getFragment(), "Fragment parsing error.");
+
+        assertTrue(JURL.build(Protocol.HTTP).setString("domain.com/?").getQueryFields().isEmpty(), "Query parsing error.");
+        assertThrows(MalformedHttpURLException.class, () -> JURL.build(Protocol.HTTP).setString("domain.com:80a/"));
+    }
+
+    /**
+     * Tests the forked URLs, which share their components with the original one until they are modified.
+     */
+    @Test
+    @DisplayName("Test Fork")
+    public void testFork() throws MalformedHttpURLException{
+        HttpURL base = JURL.build(Protocol.HTTP).setString("www.domain.com/api/v1?key=123");
+        HttpURL users = base.fork().addRouteParam("users").addQueryField("page", "2");
+        HttpURL posts = base.fork().addRouteParam("posts").setFragment("top");
+
+        assertEquals("http://www.domain.com/api/v1/?key=123", base.toString(), "URL building error after forking.");
+        assertEquals("http://www.domain.com/api/v1/users/?key=123&page=2", users.toString(), "URL building error with forked URL.");
+        assertEquals("http://www.domain.com/api/v1/posts/?key=123#top", posts.toString(), "URL building error with forked URL.");
+
+        base.removeRouteParam("v1").removeQueryField("key");
+        assertEquals("http://www.domain.com/api/", base.toString(), "URL building error after forking.");
+        assertEquals("http://www.domain.com/api/v1/users/?key=123&page=2", users.toString(), "Forked URLs are not independent.");
+
+        users.getQueryParams().setValue(0, "456");
+        posts.getRouteParams().set(0, "app");
+        assertEquals("http://www.domain.com/api/v1/users/?key=456&page=2", users.toString(), "URL building error with forked URL.");
+        assertEquals("http://www.domain.com/app/v1/posts/?key=123#top", posts.toString(), "Forked URLs are not independent.");
+
+        //Forking a lazily parsed URL and a URL with encode on write
+        HttpURL lazy = JURL.build(Protocol.HTTP).setString("domain.com/a b?q=1", true);
+        assertEquals("http://domain.com/a%20b/c/?q=1", lazy.fork().setEncodeOnWrite(true).addRouteParam("c").toString(true), "URL building error with forked URL.");
+        assertEquals("http://domain.com/a b/?q=1", lazy.toString(), "URL building error after forking.");
+    }
+
+    /**
+     * Tests that the built strings are reused until the URL is modified.
+     */
+    @Test
+    @DisplayName("Test String Cache")
+    public void testStringCache() throws MalformedHttpURLException{
+        HttpURL testURL = JURL.build(Protocol.HTTP).setString("www.domain.com/a b?id=1");
+
+        assertSame(testURL.toString(), testURL.toString(), "Built string is not reused.");
+        assertSame(testURL.toString(true), testURL.toString(true), "Built string is not reused.");
+
+        testURL.addQueryField("page", "2");
+        assertEquals("http://www.domain.com/a b/?id=1&page=2", testURL.toString(), "Built string is not discarded after modification.");
+        assertEquals("http://www.domain.com/a%20b/?id=1&page=2", testURL.toString(true), "Built string is not discarded after modification.");
+
+        //Collections returned by the getters can be modified without notifying the URL
+        List<String> routeParams = testURL.getRouteParams();
+        QueryParams queryParams = testURL.getQueryParams();
+        testURL.toString();
+        routeParams.add("c");
+        queryParams.remove(0);
+        assertEquals("http://www.domain.com/a b/c/?page=2", testURL.toString(), "Built string is reused after modification.");
+    }
+
+    /**
+     * Tests a long URL whose length is computed before it is built.
+     */
+    @Test
+    @DisplayName("Test Long URL")
+    public void testLongURL(){
+        HttpURL testURL = JURL.build(Protocol.HTTPS).setHost("domain.com").showWWW(true).setPort(8080);
+        StringBuilder expected = new StringBuilder("https://www.domain.com:8080/çarşı/");
+        StringBuilder expectedEncoded = new StringBuilder("https://www.domain.com:8080/%C3%A7ar%C5%9F%C4%B1/");
+
+        testURL.addRouteParam("çarşı");
+        for(int i = 0; i < 40; i++){
+            testURL.addQueryField("field " + i, "değer😀" + i);
+            expected.append(i == 0 ? "?" : "&").append("field ").append(i).append("=değer😀").append(i);
+            expectedEncoded.append(i == 0 ? "?" : "&").append("field%20").append(i).append("=de%C4%9Fer%F0%9F%98%80").append(i);
+        }
+        testURL.setFragment("end");
+        expected.append("#end");
+        expectedEncoded.append("#end");
+
+        assertEquals(expected.toString(), testURL.toString(), "URL building error");
+        assertEquals(expectedEncoded.toString(), testURL.toString(true), "URL building error");
+        assertEquals(expectedEncoded.toString(), testURL.appendTo(new StringBuilder(), true).toString(), "URL building error");
+    }
+
+    /**
+     * Tests the appendTo methods by comparing their results with the toString methods.
+     */
+    @Test
+    @DisplayName("Test Append To")
+    public void testAppendTo() throws MalformedHttpURLException, IOException{
+        if(testURLBuildParseData == null)
+            initAll();
+
+        for(URL url : testURLBuildParseData){
+            HttpURL testURL = JURL.build(url.protocol).setString(url.structure);
+            StringBuilder builder = new StringBuilder("<");
+            StringWriter writer = new StringWriter();
+            CharBuffer buffer = CharBuffer.allocate(1024);
+
+            testURL.appendTo(builder, true).append(">");
+            testURL.appendTo(writer, false);
+            testURL.appendTo(buffer, true);
+            buffer.flip();
+
+            assertEquals("<" + testURL.toString(true) + ">", builder.toString(), "URL appending error with a builder.");
+            assertEquals(testURL.toString(false), writer.toString(), "URL appending error with a writer.");
+            assertEquals(testURL.toString(true), buffer.toString(), "URL appending error with a buffer.");
+        }
+
+        //Nothing must be appended if the URL cannot be built
+        StringBuilder builder = new StringBuilder("url: ");
+        assertThrows(URLBuildException.class, () -> JURL.build(Protocol.HTTP).addRouteParam("a").appendTo(builder, false));
+        assertEquals("url: ", builder.toString(), "URL appending error with an invalid URL.");
+    }
+
+    /**
+     * Tests the writing of the URLs as UTF-8 bytes in all of the forms.
+     */
+    @Test
+    @DisplayName("Test Byte Rendering")
+    public void testByteRendering() throws MalformedHttpURLException, IOException{
+        HttpURL testURL = JURL.build(Protocol.HTTP).setString("www.domain.com:8080/caf\u00e9/?q=\u4e2d#top");
+
+        String[][] expected = {
+            {"http://www.domain.com:8080/caf\u00e9/?q=\u4e2d#top", "http://www.domain.com:8080/caf%C3%A9/?q=%E4%B8%AD#top"},
+            {"/caf\u00e9/?q=\u4e2d", "/caf%C3%A9/?q=%E4%B8%AD"},
+            {"www.domain.com:8080", "www.domain.com:8080"}
+        };
+
+        for(HttpURL.Form form : HttpURL.Form.values()){
+            for(int i = 0; i < 2; i++){
+                byte[] bytes = expected[form.ordinal()][i].getBytes(StandardCharsets.UTF_8);
+                ByteBuffer heapBuffer = ByteBuffer.allocate(testURL.getByteLength(form, i == 1));
+                ByteBuffer directBuffer = ByteBuffer.allocateDirect(100);
+                ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+                testURL.writeTo(heapBuffer, form, i == 1);
+                testURL.writeTo(directBuffer, form, i == 1);
+                testURL.writeTo(stream, form, i == 1);
+                directBuffer.flip();
+
+                assertEquals(bytes.length, testURL.getByteLength(form, i == 1), "Byte length error.");
+                assertArrayEquals(bytes, heapBuffer.array(), "URL writing error with a heap buffer.");
+                assertEquals(ByteBuffer.wrap(bytes), directBuffer, "URL writing error with a direct buffer.");
+                assertArrayEquals(bytes, stream.toByteArray(), "URL writing error with a stream.");
+            }
+        }
+
+        assertEquals("/", new String(JURL.build(Protocol.HTTP).setHost("domain.com").writeTo(ByteBuffer.allocate(1), HttpURL.Form.ORIGIN, false).array(), StandardCharsets.UTF_8), "URL writing error in origin form.");
+
+        ByteBuffer smallBuffer = ByteBuffer.allocate(10);
+        assertThrows(BufferOverflowException.class, () -> testURL.writeTo(smallBuffer, HttpURL.Form.ABSOLUTE, false));
+        assertEquals(0, smallBuffer.position(), "Bytes are written to a small buffer.");
+    }
+
+    /**
+     * Tests the frozen copies of the HttpURL objects.
+     */
+    @Test
+    @DisplayName("Test Freeze")
+    public void testFreeze() throws MalformedHttpURLException{
+        HttpURL testURL = JURL.build(Protocol.HTTP).setString("domain.com/a b/?tag=1&tag=2", true);
+        HttpURL frozenURL = testURL.freeze();
+
+        assertTrue(frozenURL.isFrozen(), "URL is not frozen.");
+        assertSame(frozenURL, frozenURL.freeze(), "Frozen URL is copied again.");
+        assertSame(frozenURL.toString(true), frozenURL.toString(true), "String form of the frozen URL is not cached.");
+        assertEquals("http://domain.com/a%20b/?tag=1&tag=2", frozenURL.toString(true), "URL building error with frozen URL.");
+        assertEquals(testURL, frozenURL, "Frozen URL is not equal to the original one.");
+        assertEquals(testURL.hashCode(), frozenURL.hashCode(), "Frozen URL has a different hash code.");
+        assertEquals(JURL.build(Protocol.HTTP).setString("domain.com/a b?tag=1&tag=2").freeze(), frozenURL, "Equal URLs are not equal.");
+
+        assertThrows(UnsupportedOperationException.class, () -> frozenURL.addRouteParam("c"));
+        assertThrows(UnsupportedOperationException.class, () -> frozenURL.getRouteParams().add("c"));
+        assertThrows(UnsupportedOperationException.class, () -> frozenURL.getQueryParams().add("c", "d"));
+        assertThrows(UnsupportedOperationException.class, () -> frozenURL.setString("domain.com"));
+
+        testURL.addQueryField("tag", "3");
+        assertNotEquals(testURL, frozenURL, "Frozen URL is changed with the original one.");
+        assertEquals("http://domain.com/a b/?tag=1&tag=2", frozenURL.toString(), "Frozen URL is changed with the original one.");
+
+        Set<HttpURL> urls = new HashSet<>();
+        urls.add(frozenURL);
+        assertTrue(urls.contains(JURL.build(Protocol.HTTP).setHost("domain.com").addRouteParam("a b").appendQueryField("tag", "1").appendQueryField("tag", "2")), "Frozen URL cannot be used as a key.");
+
+        HttpURL fork = frozenURL.fork().addRouteParam("c");
+        assertEquals("http://domain.com/a b/c/?tag=1&tag=2", fork.toString(), "URL building error with forked frozen URL.");
+        assertEquals("http://domain.com/a b/?tag=1&tag=2", frozenURL.toString(), "Frozen URL is changed by its fork.");
+    }
+
+    /**
+     * Tests that a frozen URL with an internationalized host name can be rendered by multiple threads right after it
+     * is frozen.
+     */
+    @Test
+    @DisplayName("Test Frozen URL Sharing")
+    public void testFrozenSharing() throws Exception{
+        int threadCount = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        try{
+            for(int round = 0; round < 200; round++){
+                String host = "b\u00fccher" + round + ".example";
+                HttpURL frozenURL = JURL.build(Protocol.HTTPS).setString("www." + host + "/a b?q=\u00e7").freeze();
+                String expected = "https://www." + IDN.toASCII(host) + "/a%20b/?q=%C3%A7";
+                CyclicBarrier barrier = new CyclicBarrier(threadCount);
+                List<Future<String>> results = new ArrayList<>();
+
+                for(int i = 0; i < threadCount; i++){
+                    results.add(executor.submit(() -> {
+                        barrier.await();
+                        assertEquals(Collections.singletonList("a b"), frozenURL.getDecodedRouteParams(), "Decoding error with frozen URL.");
+                        assertEquals("\u00e7", frozenURL.getDecodedQueryFields().get("q"), "Decoding error with frozen URL.");
+                        return frozenURL.toString(true);
+                    }));
+                }
+
+                for(Future<String> result : results)
+                    assertEquals(expected, result.get(), "URL building error with shared frozen URL.");
+            }
+        }
+        finally{
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Tests the conversion of the internationalized host names to ASCII.
+     */
+    @Test
+    @DisplayName("Test IDN Host")
+    public void testIDNHost() throws MalformedHttpURLException{
+        HttpURL testURL = JURL.build(Protocol.HTTPS).setString("www.b\u00fccher.example/\u00e7ay?q=\u00e7");
+
+        assertEquals("https://www.b\u00fccher.example/\u00e7ay/?q=\u00e7", testURL.toString(), "URL building error without encoding.");
+        assertEquals("https://www.xn--bcher-kva.example/%C3%A7ay/?q=%C3%A7", testURL.toString(true), "URL building error with IDN host.");
+        assertEquals("xn--bcher-kva.example", testURL.getASCIIHost(), "IDN conversion error.");
+
+        long hits = JURL.getIDNCacheStats().getHitCount();
+        JURL.build(Protocol.HTTP).setHost("b\u00fccher.example").toString(true);
+        assertTrue(JURL.getIDNCacheStats().getHitCount() > hits, "IDN cache is not used.");
+
+        testURL.setHost("example.com");
+        assertEquals("example.com", testURL.getASCIIHost(), "IDN conversion error after changing the host.");
+    }
+
+    /**
+     * Tests the decoded accessors of the HttpURL class.
+     */
+    @Test
+    @DisplayName("Test Decoded Accessors")
+    public void testDecodedAccessors() throws MalformedHttpURLException{
+        HttpURL testURL = JURL.build(Protocol.HTTP).setString("http://domain.com/caf%C3%A9/a%20b/100%?q=hello+world&x=%E4%B8%AD#frag%20x");
+
+        assertEquals(Arrays.asList("caf\u00e9", "a b", "100%"), testURL.getDecodedRouteParams(), "Route parameter decoding error.");
+        assertEquals("hello world", testURL.getDecodedQueryFields().get("q"), "Query field decoding error.");
+        assertEquals("\u4e2d", testURL.getDecodedQueryFields().get("x"), "Query field decoding error.");
+        assertEquals("frag x", testURL.getDecodedFragment(), "Fragment decoding error.");
+
+        List<String> decodedRouteParams = testURL.getDecodedRouteParams();
+        assertSame(decodedRouteParams, testURL.getDecodedRouteParams(), "Decoded route parameters are not cached.");
+
+        testURL.addRouteParam("d%2Fe");
+        assertEquals(Arrays.asList("caf\u00e9", "a b", "100%", "d/e"), testURL.getDecodedRouteParams(), "Decoded route parameters are not updated.");
+
+        //Collections returned by the getters are modified without notifying the URL
+        List<String> routeParams = testURL.getRouteParams();
+        testURL.getDecodedRouteParams();
+        routeParams.add("x%20y");
+        assertEquals(Arrays.asList("caf\u00e9", "a b", "100%", "d/e", "x y"), testURL.getDecodedRouteParams(), "Decoded route parameters are stale.");
+
+        QueryParams queryParams = testURL.getQueryParams();
+        testURL.getDecodedQueryFields();
+        queryParams.add("y", "a+b");
+        assertEquals("a b", testURL.getDecodedQueryFields().get("y"), "Decoded query fields are stale.");
+    }
+
+    /**
+     * Builds a new HttpURL object from the given test data.
+     *
+     * @param url the test data
+     * @return the HttpURL object
+     */
+    private HttpURL buildTestURL(URL url){
+        HttpURL testURL = JURL.build(url.protocol);
+        testURL.setHost(url.host);
+        testURL.setPort(url.port);
+        testURL.showWWW(url.shownWWW);
+
+        for (String routeParam : url.routeParameters)
+            testURL.addRouteParam(routeParam);
+
+        for (Map.Entry<String, String> queryField : url.queryFields.entrySet()) {
+            testURL.addQueryField(queryField.getKey(), queryField.getValue());
+        }
+
+        testURL.setFragment(url.fragment);
+
+        return testURL;
+    }
+
     /**
      * An object of this class represents a single Http URL for testing purposes.
      */
@@ -0,0 +1,96 @@
+package com.cemiltokatli.jurl.test;
+
+import com.cemiltokatli.jurl.HttpURL;
+import com.cemiltokatli.jurl.HttpURLWriter;
+import com.cemiltokatli.jurl.JURL;
+import com.cemiltokatli.jurl.Protocol;
+import com.cemiltokatli.jurl.exception.URLBuildException;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * This class is designed for testing the HttpURLWriter class under the "com.cemiltokatli.jurl" package.
+ */
+public class HttpURLWriterTest {
+    /**
+     * Tests the writing of URLs as lines to a channel and as sitemaps split into files.
+     */
+    @Test
+    @DisplayName("Test URL Writing")
+    public void testURLWrite() throws IOException{
+        List<HttpURL> urls = new ArrayList<>();
+        StringBuilder expectedLines = new StringBuilder();
+        for(int i = 0; i < 5000; i++){
+            HttpURL url = JURL.build(Protocol.HTTPS).setHost("d\u00f6main.com").addRouteParam("page " + i)
+                    .addQueryField("id", String.valueOf(i)).addQueryField("lang", "en");
+            urls.add(url);
+            expectedLines.append(url.toString(true)).append("\n");
+        }
+
+        //Lines
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try(HttpURLWriter writer = new HttpURLWriter(Channels.newChannel(out), HttpURLWriter.Format.LINES)){
+            writer.writeAll(urls);
+            assertEquals(5000, writer.getURLCount(), "URL writing error.");
+            assertThrows(IllegalStateException.class, () -> writer.setMaxURLCount(10), "Output of a single channel is split.");
+        }
+        assertEquals(expectedLines.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8), "URL writing error.");
+
+        //URLs that do not fit into the buffer of the writer
+        HttpURL longURL = JURL.build(Protocol.HTTP).setHost("domain.com").addRouteParam(String.join("", Collections.nCopies(200000, "\u00e7")));
+        out.reset();
+        try(HttpURLWriter writer = new HttpURLWriter(Channels.newChannel(out), HttpURLWriter.Format.LINES)){
+            writer.write(urls.get(0)).write(longURL).write(urls.get(1));
+        }
+        assertEquals(urls.get(0).toString(true) + "\n" + longURL.toString(true) + "\n" + urls.get(1).toString(true) + "\n",
+                new String(out.toByteArray(), StandardCharsets.UTF_8), "URL writing error with a long URL.");
+
+        //Sitemaps
+        Path directory = Files.createTempDirectory("HttpURLWriterTest");
+        try{
+            HttpURLWriter writer = new HttpURLWriter(directory, "sitemap-%d.xml", HttpURLWriter.Format.SITEMAP).setMaxURLCount(2000);
+            try(writer){
+                writer.writeAll(urls);
+                assertThrows(URLBuildException.class, () -> writer.write(JURL.build(Protocol.HTTP)), "URL writing error.");
+            }
+
+            assertEquals(3, writer.getFiles().size(), "Sitemap is not split.");
+            String last = new String(Files.readAllBytes(writer.getFiles().get(2)), StandardCharsets.UTF_8);
+            assertTrue(last.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<urlset"), "Sitemap writing error.");
+            assertTrue(last.contains("<url><loc>https://xn--dmain-jua.com/page%204999/?id=4999&amp;lang=en</loc></url>\n</urlset>\n"), "Sitemap writing error.");
+            assertEquals(1000, last.split("<url>").length - 1, "Sitemap writing error.");
+
+            HttpURLWriter sizeLimited = new HttpURLWriter(directory, "lines-%d.txt", HttpURLWriter.Format.LINES).setMaxFileSize(64 * 1024);
+            try(sizeLimited){
+                sizeLimited.writeAll(urls);
+            }
+
+            long total = 0;
+            for(Path file : sizeLimited.getFiles()){
+                assertTrue(Files.size(file) <= 64 * 1024, "File size limit is exceeded.");
+                total += Files.size(file);
+            }
+            assertTrue(sizeLimited.getFiles().size() > 1, "Output is not split.");
+            assertEquals(expectedLines.toString().getBytes(StandardCharsets.UTF_8).length, total, "URL writing error.");
+        }
+        finally{
+            try(Stream<Path> files = Files.list(directory)){
+                for(Path file : (Iterable<Path>) files::iterator)
+                    Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+}
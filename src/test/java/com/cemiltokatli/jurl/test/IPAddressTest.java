@@ -0,0 +1,79 @@
+package com.cemiltokatli.jurl.test;
+
+import com.cemiltokatli.jurl.HttpURL;
+import com.cemiltokatli.jurl.IPAddress;
+import com.cemiltokatli.jurl.JURL;
+import com.cemiltokatli.jurl.Protocol;
+import com.cemiltokatli.jurl.exception.MalformedHttpURLException;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class is designed for testing the IPAddress class and the IP address hosts of the HttpURL class under the "com.cemiltokatli.jurl" package.
+ */
+public class IPAddressTest {
+    /**
+     * Tests the recognition and the canonical form of the IPv6 addresses in the host names.
+     */
+    @Test
+    @DisplayName("Test IPv6 Address")
+    public void testIPv6() throws MalformedHttpURLException{
+        HttpURL testURL = JURL.build(Protocol.HTTPS).setHost("https://[2001:DB8:0:0:0:0:0:1]").setPort(8443).addRouteParam("index");
+        IPAddress address = testURL.getIPAddress();
+
+        assertNotNull(address, "IPv6 address is not recognized.");
+        assertTrue(address.isIPv6(), "IPv6 address is not recognized.");
+        assertEquals(0x20010DB800000000L, address.getHighBits(), "IPv6 address parsing error.");
+        assertEquals(1L, address.getLowBits(), "IPv6 address parsing error.");
+        assertEquals("https://[2001:db8::1]:8443/index/", testURL.toString(), "URL building error with IPv6 host.");
+        assertEquals("https://[2001:db8::1]:8443/index/", testURL.toString(true), "URL building error with IPv6 host.");
+
+        //Parsed hosts
+        HttpURL parsedURL = JURL.build(Protocol.HTTPS).setString("https://[2001:db8::0:1]:8443/index/");
+        assertEquals(address, parsedURL.getIPAddress(), "IPv6 address parsing error.");
+        assertEquals(testURL, parsedURL, "URLs with the same IP address are not equal.");
+        assertEquals(testURL.hashCode(), parsedURL.hashCode(), "URLs with the same IP address are not equal.");
+        assertEquals("[::ffff:192.0.2.1]", JURL.build(Protocol.HTTP).setString("http://[::FFFF:c000:201]/").getASCIIHost(), "IPv6 address rendering error.");
+        assertEquals("[2001:db8::1:0:0:1]", JURL.build(Protocol.HTTP).setString("http://[2001:db8:0:0:1:0:0:1]/").getASCIIHost(), "IPv6 address rendering error.");
+        assertNull(JURL.build(Protocol.HTTP).setString("http://[v1.test]/").getIPAddress(), "Future IP literal is parsed.");
+        assertThrows(MalformedHttpURLException.class, () -> JURL.build(Protocol.HTTP).setString("http://[2001:db8:::1]/"), "Invalid IPv6 address is accepted.");
+        assertThrows(MalformedHttpURLException.class, () -> JURL.build(Protocol.HTTP).setString("http://[1:2:3:4:5:6:7:8:9]/"), "Invalid IPv6 address is accepted.");
+        assertThrows(MalformedHttpURLException.class, () -> JURL.build(Protocol.HTTP).setString("http://[::\u0663]/"), "Non-ASCII digit is accepted in an IPv6 address.");
+        assertNull(JURL.build(Protocol.HTTP).setHost("[::\uff11]").getIPAddress(), "Non-ASCII digit is accepted in an IPv6 address.");
+    }
+
+    /**
+     * Tests the IPv4 addresses, their subnets and the comparison of the addresses.
+     */
+    @Test
+    @DisplayName("Test IPv4 Address")
+    public void testIPv4() throws MalformedHttpURLException{
+        IPAddress ipv6 = JURL.build(Protocol.HTTP).setHost("[2001:db8::1]").getIPAddress();
+
+        HttpURL first = JURL.build(Protocol.HTTP).setString("http://192.168.1.10:8080/");
+        HttpURL second = JURL.build(Protocol.HTTP).setHost("192.168.1.200");
+        assertEquals(0xC0A8010A, first.getIPAddress().getIPv4Bits(), "IPv4 address parsing error.");
+        assertTrue(first.getIPAddress().isInSubnet(second.getIPAddress(), 24), "Subnet comparison error.");
+        assertFalse(first.getIPAddress().isInSubnet(second.getIPAddress(), 25), "Subnet comparison error.");
+        assertFalse(first.getIPAddress().isInSubnet(ipv6, 0), "Subnet comparison error.");
+        assertEquals("192.168.0.0", first.getIPAddress().toSubnet(16).toString(), "Subnet conversion error.");
+        assertEquals("2001:db8::", ipv6.toSubnet(32).toString(), "Subnet conversion error.");
+        assertTrue(first.getIPAddress().compareTo(second.getIPAddress()) < 0, "IP address comparison error.");
+        assertTrue(first.getIPAddress().compareTo(ipv6) < 0, "IP address comparison error.");
+        assertArrayEquals(new byte[]{(byte) 192, (byte) 168, 1, 10}, first.getIPAddress().toBytes(), "IPv4 address conversion error.");
+        assertThrows(IllegalArgumentException.class, () -> second.getIPAddress().toSubnet(33), "Invalid prefix length is accepted.");
+    }
+
+    /**
+     * Tests that the host names which are not IP addresses are not parsed as IP addresses.
+     */
+    @Test
+    @DisplayName("Test Host Names")
+    public void testHostNames(){
+        assertNull(JURL.build(Protocol.HTTP).setHost("100.200.300.400").getIPAddress(), "Invalid IPv4 address is parsed.");
+        assertNull(JURL.build(Protocol.HTTP).setHost("192.168.01.1").getIPAddress(), "IPv4 address with leading zeros is parsed.");
+        assertNull(JURL.build(Protocol.HTTP).setHost("1.2.3.4.example").getIPAddress(), "Host name is parsed as an IP address.");
+        assertNull(JURL.build(Protocol.HTTP).setHost("domain.com").getIPAddress(), "Host name is parsed as an IP address.");
+    }
+}
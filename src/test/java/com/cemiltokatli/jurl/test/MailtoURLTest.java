@@ -94,6 +94,26 @@ public class MailtoURLTest {
         }
     }
 
+    /**
+     * Tests the frozen copies of the MailtoURL objects.
+     */
+    @Test
+    @DisplayName("Test Freeze")
+    public void testFreeze(){
+        MailtoURL testURL = JURL.build(Protocol.MAILTO).setEmailAddress("info@domain.com").setSubject("Hello World");
+        MailtoURL frozenURL = testURL.freeze();
+
+        assertEquals("mailto:info@domain.com?subject=Hello%20World", frozenURL.toString(true), "URL building error with encoding.");
+        assertEquals("mailto:info@domain.com?subject=Hello%20World", frozenURL.toString(true), "URL building error with encoding.");
+        assertEquals("mailto:info@domain.com?subject=Hello World", frozenURL.toString(), "URL building error without encoding.");
+        assertEquals(testURL, frozenURL, "Frozen URL is not equal to the original one.");
+        assertEquals(testURL.hashCode(), frozenURL.hashCode(), "Frozen URL has a different hash code.");
+        assertThrows(UnsupportedOperationException.class, () -> frozenURL.setSubject("Hi"));
+
+        testURL.setSubject("Hi");
+        assertNotEquals(testURL, frozenURL, "Frozen URL is changed with the original one.");
+    }
+
     /**
      * An object of this class represents a single Mailto URL for testing purposes.
      */
@@ -0,0 +1,127 @@
+package com.cemiltokatli.jurl.test;
+
+import com.cemiltokatli.jurl.HttpURL;
+import com.cemiltokatli.jurl.JURL;
+import com.cemiltokatli.jurl.Protocol;
+import com.cemiltokatli.jurl.QueryParams;
+import com.cemiltokatli.jurl.exception.MalformedHttpURLException;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class is designed for testing the QueryParams class and the query field map of the HttpURL class under the "com.cemiltokatli.jurl" package.
+ */
+public class QueryParamsTest {
+    /**
+     * Tests the query fields whose names occur more than once.
+     */
+    @Test
+    @DisplayName("Test Query Params")
+    public void testQueryParams() throws MalformedHttpURLException{
+        HttpURL testURL = JURL.build(Protocol.HTTP).setString("domain.com/?tag=a&id=1&tag=b");
+        QueryParams params = testURL.getQueryParams();
+
+        assertEquals(3, params.size(), "Query parsing error.");
+        assertEquals(Arrays.asList("a", "b"), params.getAll("tag"), "Query parsing error.");
+        assertEquals("b", testURL.getQueryField("tag"), "Query parsing error.");
+        assertEquals("b", testURL.getQueryFields().get("tag"), "Query parsing error.");
+        assertEquals("http://domain.com/?tag=a&id=1&tag=b", testURL.toString(), "URL building error with repeated query fields.");
+
+        testURL.appendQueryField("tag", "c d");
+        assertEquals("http://domain.com/?tag=a&id=1&tag=b&tag=c%20d", testURL.toString(true), "URL building error with repeated query fields.");
+
+        testURL.addQueryField("tag", "e");
+        assertEquals("http://domain.com/?tag=e&id=1", testURL.toString(), "URL building error with repeated query fields.");
+
+        params.add("page", "2").setValue(1, "5").remove(0);
+        assertEquals("id", params.getName(0), "Query field removal error.");
+        assertEquals("http://domain.com/?id=5&page=2", testURL.toString(), "URL building error with modified query params.");
+
+        testURL.removeQueryField("id");
+        assertEquals("http://domain.com/?page=2", testURL.toString(), "URL building error with modified query params.");
+
+        //Encoded forms must follow the changes made through the QueryParams object
+        HttpURL encodedURL = JURL.build(Protocol.HTTP).setHost("domain.com").setEncodeOnWrite(true)
+                                 .appendQueryField("q", "a b").appendQueryField("q", "c");
+        encodedURL.getQueryParams().setValue(0, "x y");
+        assertEquals("http://domain.com/?q=x%20y&q=c", encodedURL.toString(true), "URL building error with encode on write.");
+    }
+
+    /**
+     * Tests the setting of the query fields whose names occur more than once.
+     */
+    @Test
+    @DisplayName("Test Setting Repeated Query Fields")
+    public void testSetRepeated() throws MalformedHttpURLException{
+        HttpURL testURL = JURL.build(Protocol.HTTP).setString("domain.com/?tag=a&id=1&tag=b&page=2&tag=c");
+        QueryParams params = testURL.getQueryParams();
+
+        params.set(new String("tag"), "d");
+        assertEquals(3, params.size(), "Repeated query fields are not removed.");
+        assertEquals("http://domain.com/?tag=d&id=1&page=2", testURL.toString(), "URL building error with repeated query fields.");
+
+        params.set("lang", "en").set("id", "5");
+        assertEquals("http://domain.com/?tag=d&id=5&page=2&lang=en", testURL.toString(), "URL building error with modified query params.");
+    }
+
+    /**
+     * Tests that the changes made on the map returned by the getQueryFields method are reflected to the URL.
+     */
+    @Test
+    @DisplayName("Test Query Field Map")
+    public void testQueryFieldMap() throws MalformedHttpURLException{
+        HttpURL testURL = JURL.build(Protocol.HTTP).setString("domain.com/a?x=1&tag=a&tag=b");
+        assertEquals("http://domain.com/a/?x=1&tag=a&tag=b", testURL.toString(), "URL building error.");
+
+        LinkedHashMap<String, String> fields = testURL.getQueryFields();
+        assertEquals("b", fields.get("tag"), "Query field map error.");
+        assertEquals(2, fields.size(), "Query field map error.");
+
+        fields.put("y", "2");
+        assertEquals("http://domain.com/a/?x=1&tag=a&tag=b&y=2", testURL.toString(), "Query field map is not reflected to the URL.");
+
+        fields.remove("x");
+        fields.put("tag", "c");
+        assertEquals("http://domain.com/a/?tag=c&y=2", testURL.toString(), "Query field map is not reflected to the URL.");
+
+        testURL.addQueryField("z", "3");
+        assertEquals("3", fields.get("z"), "URL is not reflected to the query field map.");
+
+        Iterator<Map.Entry<String, String>> iterator = fields.entrySet().iterator();
+        while(iterator.hasNext()){
+            Map.Entry<String, String> field = iterator.next();
+
+            if(field.getKey().equals("y"))
+                iterator.remove();
+            else
+                field.setValue(field.getValue() + "0");
+        }
+        assertEquals("http://domain.com/a/?tag=c0&z=30", testURL.toString(), "Query field map is not reflected to the URL.");
+
+        //Methods inherited from the LinkedHashMap class
+        fields.merge("z", "1", String::concat);
+        fields.computeIfAbsent("w", name -> "4");
+        assertEquals("http://domain.com/a/?tag=c0&z=301&w=4", testURL.toString(), "Query field map is not reflected to the URL.");
+        assertEquals(Arrays.asList("tag", "z", "w"), new ArrayList<>(fields.keySet()), "Query field map error.");
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> copy = (Map<String, String>) fields.clone();
+        fields.remove("w");
+        assertEquals("4", copy.get("w"), "Copy of the query field map is changed.");
+        assertEquals(copy.size() - 1, fields.size(), "Query field map error.");
+
+        //Forks and frozen URLs
+        HttpURL fork = testURL.fork();
+        fork.getQueryFields().clear();
+        assertEquals("http://domain.com/a/", fork.toString(), "Query field map is not reflected to the URL.");
+        assertEquals("http://domain.com/a/?tag=c0&z=301", testURL.toString(), "Fork is changed through the query field map.");
+        assertThrows(UnsupportedOperationException.class, () -> testURL.freeze().getQueryFields().put("a", "b"), "Frozen URL is modified.");
+    }
+}
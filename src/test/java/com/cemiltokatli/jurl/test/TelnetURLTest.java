@@ -98,6 +98,23 @@ public class TelnetURLTest {
         }
     }
 
+    /**
+     * Tests that the built strings are reused until the URL is modified.
+     */
+    @Test
+    @DisplayName("Test String Cache")
+    public void testStringCache(){
+        TelnetURL testURL = JURL.build(Protocol.TELNET).setHost("domain.com").setUsername("user name");
+
+        assertSame(testURL.toString(), testURL.toString(), "Built string is not reused.");
+        assertSame(testURL.toString(true), testURL.toString(true), "Built string is not reused.");
+        assertEquals("telnet://user%20name@domain.com", testURL.toString(true), "URL building error with encoding.");
+
+        testURL.setPort(23);
+        assertEquals("telnet://user name@domain.com:23", testURL.toString(), "Built string is not discarded after modification.");
+        assertEquals("telnet://user%20name@domain.com:23", testURL.toString(true), "Built string is not discarded after modification.");
+    }
+
     /**
      * An object of this class represents a single Telnet URL for testing purposes.
      */
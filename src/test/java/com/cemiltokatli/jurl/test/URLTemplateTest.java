@@ -0,0 +1,73 @@
+package com.cemiltokatli.jurl.test;
+
+import com.cemiltokatli.jurl.HttpURL;
+import com.cemiltokatli.jurl.JURL;
+import com.cemiltokatli.jurl.Protocol;
+import com.cemiltokatli.jurl.URLTemplate;
+import com.cemiltokatli.jurl.exception.MalformedHttpURLException;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class is designed for testing the URLTemplate class under the "com.cemiltokatli.jurl" package.
+ */
+public class URLTemplateTest {
+    /**
+     * Tests the compiled templates by comparing them with the URLs built by setting the placeholders.
+     */
+    @Test
+    @DisplayName("Test URL Templates")
+    public void testURLTemplate() throws MalformedHttpURLException{
+        String[] structures = {
+            "http://www.domain.com/country/{country}/city/{city}",
+            "domain.com:8080/{page}?id={id}&lang=en#{section}",
+            "domain.com/items/{file}?{key}={value}",
+            "domain.com/?q={q}",
+            "domain.com#{section}"
+        };
+
+        Map<String, String> bindings = new HashMap<>();
+        bindings.put("country", "t\u00fcrkiye");
+        bindings.put("city", "istanbul");
+        bindings.put("page", "index.jsp");
+        bindings.put("id", "a b");
+        bindings.put("file", "photo.png");
+        bindings.put("q", "x&y");
+
+        for(String structure : structures){
+            URLTemplate template = JURL.compile(Protocol.HTTPS, structure);
+            HttpURL expected = JURL.build(Protocol.HTTPS).setString(structure);
+
+            for(Map.Entry<String, String> binding : bindings.entrySet())
+                expected.setRouteParam(binding.getKey(), binding.getValue());
+
+            //Bound placeholders in the query and the fragment
+            if(structure.contains("id={id}"))
+                expected.addQueryField("id", "a b");
+            if(structure.contains("q={q}"))
+                expected.addQueryField("q", "x&y");
+
+            assertEquals(expected.toString(), template.render(bindings), "URL template rendering error.");
+            assertEquals(expected.toString(true), template.render(bindings, true), "URL template rendering error with encoding.");
+        }
+
+        URLTemplate template = JURL.compile(Protocol.HTTP, "domain.com/{a}/{b}/{a}");
+        assertEquals(Arrays.asList("a", "b"), template.getSlotNames(), "URL template compiling error.");
+        assertEquals("http://domain.com/x/{b}/x/", template.render(Collections.singletonMap("a", "x")), "URL template rendering error.");
+        assertEquals("http://domain.com/x.y/{b}/x.y", template.render(Collections.singletonMap("a", "x.y")), "URL template rendering error.");
+
+        //Placeholders can also be a part of a component
+        template = JURL.compile(Protocol.HTTP, "domain.com/item-{id}?ref=app-{id}");
+        assertEquals("http://domain.com/item-7/?ref=app-7", template.render(Collections.singletonMap("id", "7")), "URL template rendering error.");
+
+        //Values are encoded as a part of their components
+        template = JURL.compile(Protocol.HTTP, "domain.com/?q={q}");
+        assertEquals("http://domain.com/?q=a%26b%3Dc", template.render(Collections.singletonMap("q", "a&b=c"), true), "URL template rendering error with encoding.");
+    }
+}